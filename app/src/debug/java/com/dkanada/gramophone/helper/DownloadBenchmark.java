@@ -0,0 +1,156 @@
+package com.dkanada.gramophone.helper;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Locale;
+import java.util.Random;
+
+// compares the old download path that copied the cache file into the music folder with the single write
+// the body comes from memory so only the disk is measured and the io counters are read from the kernel
+// only part of debug builds so call it from a background thread there and read the results from logcat
+@SuppressWarnings("ResultOfMethodCallIgnored")
+public class DownloadBenchmark {
+    private static final String TAG = DownloadBenchmark.class.getSimpleName();
+
+    private static final int BUFFER_SIZE = 1048576;
+    private static final long TRANSFER_SIZE = 1048576;
+    private static final int RUNS = 3;
+
+    public static void run(File cache, File music, long size) throws IOException {
+        cache.mkdirs();
+        music.mkdirs();
+
+        Benchmark copy = () -> {
+            File temp = new File(cache, "benchmark");
+            File audio = new File(music, "benchmark.flac");
+
+            // the heap buffer write into the cache followed by the copy into the music folder
+            try (InputStream input = new Body(size); OutputStream output = new FileOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int count;
+                while ((count = input.read(buffer)) != -1) output.write(buffer, 0, count);
+            }
+
+            try (InputStream input = new FileInputStream(temp); OutputStream output = new FileOutputStream(audio)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int count;
+                while ((count = input.read(buffer)) != -1) output.write(buffer, 0, count);
+            }
+
+            temp.delete();
+            audio.delete();
+        };
+
+        measure("copy", copy, size);
+        measure("single", () -> single(music, size, true), size);
+
+        // the copy path never synced so this separates the cost of the fsync from the single write
+        measure("single without fsync", () -> single(music, size, false), size);
+    }
+
+    private static void single(File music, long size, boolean force) throws IOException {
+        File audio = new File(music, "benchmark.flac");
+        File partial = new File(audio.getPath() + ".partial");
+
+        try (ReadableByteChannel input = Channels.newChannel(new Body(size));
+             FileChannel output = new FileOutputStream(partial).getChannel()) {
+            long position = 0;
+            long count;
+            while ((count = output.transferFrom(input, position, TRANSFER_SIZE)) > 0) position += count;
+
+            if (force) output.force(true);
+        }
+
+        partial.renameTo(audio);
+        audio.delete();
+    }
+
+    private static void measure(String name, Benchmark benchmark, long size) throws IOException {
+        long[] before = getIo();
+        StopWatch stopWatch = new StopWatch();
+
+        stopWatch.start();
+        for (int i = 0; i < RUNS; i++) {
+            benchmark.run();
+        }
+
+        stopWatch.pause();
+        long[] after = getIo();
+
+        long elapsed = Math.max(1, stopWatch.getElapsedTime() / RUNS);
+        Log.i(TAG, String.format(Locale.ENGLISH, "%s: %d ms at %d KB/s, %d KB read and %d KB written per %d KB file",
+                name,
+                elapsed,
+                size / elapsed,
+                (after[0] - before[0]) / RUNS / 1024,
+                (after[1] - before[1]) / RUNS / 1024,
+                size / 1024));
+    }
+
+    // bytes the process read and wrote through the page cache since it started
+    private static long[] getIo() {
+        long[] result = new long[2];
+        try (InputStream input = new FileInputStream("/proc/self/io")) {
+            StringBuilder builder = new StringBuilder();
+            byte[] buffer = new byte[1024];
+            int count;
+            while ((count = input.read(buffer)) != -1) builder.append(new String(buffer, 0, count));
+
+            for (String line : builder.toString().split("\n")) {
+                if (line.startsWith("rchar: ")) result[0] = Long.parseLong(line.substring(7).trim());
+                if (line.startsWith("wchar: ")) result[1] = Long.parseLong(line.substring(7).trim());
+            }
+        } catch (IOException | NumberFormatException exception) {
+            exception.printStackTrace();
+        }
+
+        return result;
+    }
+
+    // response body of the given size that repeats one block of random bytes
+    private static class Body extends InputStream {
+        private static final byte[] block = new byte[65536];
+
+        static {
+            new Random(0).nextBytes(block);
+        }
+
+        private long remaining;
+
+        private Body(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) return -1;
+
+            remaining--;
+            return block[(int) (remaining % block.length)] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (remaining == 0) return -1;
+
+            int count = (int) Math.min(Math.min(length, remaining), block.length);
+            System.arraycopy(block, 0, buffer, offset, count);
+            remaining -= count;
+
+            return count;
+        }
+    }
+
+    private interface Benchmark {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,122 @@
+package com.dkanada.gramophone.helper;
+
+import android.os.Build;
+import android.os.Debug;
+import android.util.Log;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.ItemsDecoder;
+import com.dkanada.gramophone.util.ItemsUtil;
+import com.dkanada.gramophone.util.QueryUtil;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.querying.ItemFields;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+// compares decoding a page of songs through dto objects with the streaming decoder
+// only part of debug builds so call it from a background thread there and read the results from logcat
+public class ItemsBenchmark {
+    private static final String TAG = ItemsBenchmark.class.getSimpleName();
+
+    private static final int ITEMS = 1000;
+    private static final int WARMUP = 3;
+    private static final int RUNS = 10;
+
+    public static void run() throws IOException {
+        ItemQuery query = new ItemQuery();
+        query.setUserId(App.getApiClient().getCurrentUserId());
+        query.setParentId(QueryUtil.currentLibrary.getId());
+        query.setIncludeItemTypes(new String[]{"Audio"});
+        query.setFields(new ItemFields[]{ItemFields.MediaSources});
+        query.setRecursive(true);
+        query.setLimit(ITEMS);
+
+        String json = read(ItemsUtil.open(ItemsUtil.getItemsUrl(query)));
+
+        // the api client parses dates on its own so only the date format differs from the real path
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (element, type, context) -> new Date(ItemsDecoder.parseDate(element.getAsString())))
+                .create();
+
+        Benchmark dto = () -> {
+            ItemsResult result = gson.fromJson(new StringReader(json), ItemsResult.class);
+
+            List<Song> songs = new ArrayList<>();
+            for (BaseItemDto itemDto : result.getItems()) {
+                songs.add(new Song(itemDto));
+            }
+
+            return songs.size();
+        };
+
+        Benchmark stream = () -> ItemsDecoder.readItems(new StringReader(json), Song::new, ItemsDecoder::readSong).items.size();
+
+        measure("dto", dto);
+        measure("stream", stream);
+    }
+
+    private static void measure(String name, Benchmark benchmark) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            benchmark.run();
+        }
+
+        StopWatch stopWatch = new StopWatch();
+        long start = getAllocated();
+        int items = 0;
+
+        stopWatch.start();
+        for (int i = 0; i < RUNS; i++) {
+            items += benchmark.run();
+        }
+
+        stopWatch.pause();
+        long allocated = start < 0 ? -1 : getAllocated() - start;
+
+        if (items == 0) return;
+        Log.i(TAG, String.format(Locale.ENGLISH, "%s: %.2f millis and %d kilobytes per %d items",
+                name,
+                stopWatch.getElapsedTime() * (float) ITEMS / items,
+                allocated < 0 ? -1 : allocated * ITEMS / items / 1024,
+                ITEMS));
+    }
+
+    // bytes allocated by the whole runtime so other threads should be idle while measuring
+    private static long getAllocated() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) return -1;
+
+        String allocated = Debug.getRuntimeStat("art.gc.bytes-allocated");
+        return allocated != null ? Long.parseLong(allocated) : -1;
+    }
+
+    private static String read(Reader reader) throws IOException {
+        try (Reader in = reader) {
+            StringWriter writer = new StringWriter();
+            char[] buffer = new char[8192];
+
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                writer.write(buffer, 0, count);
+            }
+
+            return writer.toString();
+        }
+    }
+
+    private interface Benchmark {
+        int run() throws IOException;
+    }
+}
@@ -4,12 +4,16 @@ import android.annotation.SuppressLint;
 import android.app.Application;
 import android.content.Context;
 import android.os.Build;
+import android.os.StrictMode;
 import android.provider.Settings;
 
 import androidx.room.Room;
+import androidx.room.RoomDatabase;
 
+import com.dkanada.gramophone.database.DatabaseExecutor;
 import com.dkanada.gramophone.database.JellyDatabase;
 import com.dkanada.gramophone.helper.EventListener;
+import com.dkanada.gramophone.helper.HttpClient;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.kabouzeid.appthemehelper.ThemeStore;
 import com.dkanada.gramophone.views.shortcuts.DynamicShortcutManager;
@@ -17,16 +21,22 @@ import com.melegy.redscreenofdeath.RedScreenOfDeath;
 
 import org.jellyfin.apiclient.interaction.AndroidDevice;
 import org.jellyfin.apiclient.interaction.ApiClient;
-import org.jellyfin.apiclient.interaction.VolleyHttpClient;
 import org.jellyfin.apiclient.interaction.device.IDevice;
 import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
 import org.jellyfin.apiclient.logging.AndroidLogger;
 import org.jellyfin.apiclient.logging.ILogger;
 
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
 public class App extends Application {
     private static App app;
 
     private static JellyDatabase database;
+    private static OkHttpClient httpClient;
     private static ApiClient apiClient;
 
     @Override
@@ -35,16 +45,32 @@ public class App extends Application {
 
         if (BuildConfig.DEBUG) {
             RedScreenOfDeath.init(this);
+
+            // database calls on the main thread are reported here
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyLog()
+                    .build());
+
+            StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                    .detectLeakedSqlLiteObjects()
+                    .detectLeakedClosableObjects()
+                    .penaltyLog()
+                    .build());
         }
 
         app = this;
         database = createDatabase(this);
+        httpClient = createHttpClient();
         apiClient = createApiClient(this);
 
-        if (database.userDao().getUsers().size() == 0) {
+        DatabaseExecutor.read(database -> database.userDao().getUsers().size(), count -> {
+            if (count != 0) return;
+
             PreferenceUtil.getInstance(this).setServer(null);
             PreferenceUtil.getInstance(this).setUser(null);
-        }
+        });
 
         if (!ThemeStore.isConfigured(this, 1)) {
             ThemeStore.editTheme(this).primaryColorRes(R.color.md_indigo_500).accentColorRes(R.color.md_pink_A400).commit();
@@ -57,12 +83,20 @@ public class App extends Application {
 
     public static JellyDatabase createDatabase(Context context) {
         return Room.databaseBuilder(context, JellyDatabase.class, "database")
-                .allowMainThreadQueries()
+                .setJournalMode(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(DatabaseExecutor.getReadExecutor())
+                .setTransactionExecutor(DatabaseExecutor.getWriteExecutor())
                 .addMigrations(JellyDatabase.Migration2)
                 .addMigrations(JellyDatabase.Migration3)
                 .addMigrations(JellyDatabase.Migration4)
                 .addMigrations(JellyDatabase.Migration5)
                 .addMigrations(JellyDatabase.Migration6)
+                .addMigrations(JellyDatabase.Migration7)
+                .addMigrations(JellyDatabase.Migration8)
+                .addMigrations(JellyDatabase.Migration9)
+                .addMigrations(JellyDatabase.Migration10)
+                .addMigrations(JellyDatabase.Migration11)
+                .addMigrations(JellyDatabase.Migration12)
                 .build();
     }
 
@@ -76,17 +110,37 @@ public class App extends Application {
         String server = PreferenceUtil.getInstance(context).getServer();
 
         ILogger logger = new AndroidLogger(context.getClass().getName());
-        IAsyncHttpClient httpClient = new VolleyHttpClient(logger, context);
+        IAsyncHttpClient httpClient = new HttpClient(getHttpClient());
         IDevice device = new AndroidDevice(deviceId, deviceName);
         EventListener eventListener = new EventListener();
 
         return new ApiClient(httpClient, logger, server, appName, appVersion, device, eventListener);
     }
 
+    // one connection pool for the api client, images and playback
+    public static OkHttpClient createHttpClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(16);
+        dispatcher.setMaxRequestsPerHost(8);
+
+        // okhttp asks for gzip on its own and decompresses transparently
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+                .connectTimeout(15, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
     public static JellyDatabase getDatabase() {
         return database;
     }
 
+    public static OkHttpClient getHttpClient() {
+        return httpClient;
+    }
+
     public static ApiClient getApiClient() {
         return apiClient;
     }
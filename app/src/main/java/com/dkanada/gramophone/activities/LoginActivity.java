@@ -9,10 +9,12 @@ import android.widget.Toast;
 
 import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.R;
+import com.dkanada.gramophone.database.DatabaseExecutor;
 import com.dkanada.gramophone.databinding.ActivityLoginBinding;
 import com.dkanada.gramophone.activities.base.AbsBaseActivity;
 import com.dkanada.gramophone.model.User;
 import com.dkanada.gramophone.util.PreferenceUtil;
+import com.dkanada.gramophone.util.ResponseCache;
 import com.kabouzeid.appthemehelper.ThemeStore;
 
 import org.jellyfin.apiclient.interaction.Response;
@@ -119,13 +121,16 @@ public class LoginActivity extends AbsBaseActivity implements View.OnClickListen
                 if (result.getVersion().charAt(0) == '1') {
                     User user = new User(authenticationResult, server);
 
-                    App.getDatabase().userDao().insertUser(user);
-                    PreferenceUtil.getInstance(LoginActivity.this).setServer(user.server);
-                    PreferenceUtil.getInstance(LoginActivity.this).setUser(user.id);
+                    DatabaseExecutor.write(database -> database.userDao().insertUser(user), () -> {
+                        if (!user.id.equals(PreferenceUtil.getInstance(LoginActivity.this).getUser())) ResponseCache.clear();
 
-                    Intent intent = new Intent(LoginActivity.this, SplashActivity.class);
-                    intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
-                    startActivity(intent);
+                        PreferenceUtil.getInstance(LoginActivity.this).setServer(user.server);
+                        PreferenceUtil.getInstance(LoginActivity.this).setUser(user.id);
+
+                        Intent intent = new Intent(LoginActivity.this, SplashActivity.class);
+                        intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+                        startActivity(intent);
+                    });
                 } else {
                     binding.login.setEnabled(true);
                     binding.login.setBackgroundColor(primaryColor);
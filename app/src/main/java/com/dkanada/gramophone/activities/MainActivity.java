@@ -89,6 +89,7 @@ public class MainActivity extends AbsMusicContentActivity {
             menu.getItem(menu.size() - 1).setIcon(R.drawable.ic_exit_to_app_white_48dp);
 
             setUpDrawerLayout();
+            NavigationUtil.startSync(this, QueryUtil.currentLibrary.getId());
 
             menu.getItem(0).setChecked(true);
             if (state == null) {
@@ -158,6 +159,7 @@ public class MainActivity extends AbsMusicContentActivity {
             for (BaseItemDto itemDto : libraries) {
                 if (menuItem.getItemId() == itemDto.getId().hashCode()) {
                     QueryUtil.currentLibrary = itemDto;
+                    NavigationUtil.startSync(this, itemDto.getId());
                     setCurrentFragment(LibraryFragment.newInstance());
                     break;
                 }
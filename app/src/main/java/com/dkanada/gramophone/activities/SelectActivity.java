@@ -6,16 +6,13 @@ import android.os.Bundle;
 
 import androidx.recyclerview.widget.LinearLayoutManager;
 
-import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.activities.base.AbsBaseActivity;
 import com.dkanada.gramophone.adapter.SelectAdapter;
+import com.dkanada.gramophone.database.DatabaseExecutor;
 import com.dkanada.gramophone.databinding.ActivitySelectBinding;
-import com.dkanada.gramophone.model.User;
 import com.kabouzeid.appthemehelper.ThemeStore;
 
-import java.util.List;
-
 public class SelectActivity extends AbsBaseActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -25,11 +22,10 @@ public class SelectActivity extends AbsBaseActivity {
         ActivitySelectBinding binding = ActivitySelectBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        List<User> users = App.getDatabase().userDao().getUsers();
-        SelectAdapter adapter = new SelectAdapter(this, users);
-
-        binding.recyclerView.setAdapter(adapter);
         binding.recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        DatabaseExecutor.read(database -> database.userDao().getUsers(), users -> {
+            binding.recyclerView.setAdapter(new SelectAdapter(this, users));
+        });
 
         binding.add.setOnClickListener(v -> {
             startActivity(new Intent(context, LoginActivity.class));
@@ -4,9 +4,9 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 
-import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.activities.base.AbsBaseActivity;
+import com.dkanada.gramophone.database.DatabaseExecutor;
 import com.dkanada.gramophone.model.User;
 import com.dkanada.gramophone.service.LoginService;
 import com.dkanada.gramophone.util.NavigationUtil;
@@ -37,8 +37,16 @@ public class SplashActivity extends AbsBaseActivity {
     protected void onResume() {
         super.onResume();
 
-        User user = App.getDatabase().userDao().getUser(PreferenceUtil.getInstance(this).getUser());
-        List<User> available = App.getDatabase().userDao().getUsers();
+        DatabaseExecutor.read(database -> database.userDao().getUsers(), this::onUsers);
+    }
+
+    private void onUsers(List<User> available) {
+        if (isFinishing()) return;
+
+        User user = null;
+        for (User item : available) {
+            if (item.id.equals(PreferenceUtil.getInstance(this).getUser())) user = item;
+        }
 
         if (user == null && available.size() != 0) {
             NavigationUtil.startSelect(this);
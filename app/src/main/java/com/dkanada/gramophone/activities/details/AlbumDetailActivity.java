@@ -195,7 +195,10 @@ public class AlbumDetailActivity extends AbsMusicContentActivity implements Pale
                 NavigationUtil.startArtist(this, new Artist(album), null);
                 return true;
             case R.id.action_download:
-                NavigationUtil.startDownload(this, songs);
+                ItemQuery query = new ItemQuery();
+                query.setParentId(album.id);
+
+                NavigationUtil.startDownload(this, query);
                 return true;
         }
 
@@ -219,7 +219,10 @@ public class ArtistDetailActivity extends AbsMusicContentActivity implements Pal
                 AddToPlaylistDialog.create(songs).show(getSupportFragmentManager(), "ADD_PLAYLIST");
                 return true;
             case R.id.action_download:
-                NavigationUtil.startDownload(this, songs);
+                ItemQuery query = new ItemQuery();
+                query.setArtistIds(new String[]{artist.id});
+
+                NavigationUtil.startDownload(this, query);
                 return true;
             case R.id.action_colored_footers:
                 item.setChecked(!item.isChecked());
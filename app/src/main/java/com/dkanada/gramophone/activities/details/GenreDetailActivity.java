@@ -18,13 +18,16 @@ import com.kabouzeid.appthemehelper.ThemeStore;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.adapter.song.SongAdapter;
 import com.dkanada.gramophone.helper.MusicPlayerRemote;
+import com.dkanada.gramophone.helper.QueueSource;
 import com.dkanada.gramophone.interfaces.CabHolder;
 import com.dkanada.gramophone.model.Genre;
+import com.dkanada.gramophone.model.SortMethod;
 import com.dkanada.gramophone.util.ThemeUtil;
 import com.dkanada.gramophone.util.QueryUtil;
 import com.dkanada.gramophone.util.ViewUtil;
 import com.simplecityapps.recyclerview_fastscroll.views.FastScrollRecyclerView;
 
+import org.jellyfin.apiclient.model.entities.SortOrder;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
 
 import java.util.ArrayList;
@@ -57,15 +60,22 @@ public class GenreDetailActivity extends AbsMusicContentActivity implements CabH
 
     @Override
     public void onStateOnline() {
-        ItemQuery query = new ItemQuery();
-        query.setGenreIds(new String[]{genre.id});
-
-        QueryUtil.getSongs(query, media -> {
+        QueryUtil.getSongs(createQuery(), media -> {
             adapter.getDataSet().addAll(media);
             adapter.notifyDataSetChanged();
         });
     }
 
+    // the list only shows the first page so playing it goes through a queue source with the same order
+    private ItemQuery createQuery() {
+        ItemQuery query = new ItemQuery();
+        query.setGenreIds(new String[]{genre.id});
+        query.setSortBy(new String[]{SortMethod.NAME.getApi(), "Id"});
+        query.setSortOrder(SortOrder.Ascending);
+
+        return query;
+    }
+
     @Override
     protected View createContentView() {
         binding = ActivityGenreDetailBinding.inflate(getLayoutInflater());
@@ -78,6 +88,7 @@ public class GenreDetailActivity extends AbsMusicContentActivity implements CabH
         binding.recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
         adapter = new SongAdapter(this, new ArrayList<>(), R.layout.item_list, false, this);
+        adapter.setSourceQuery(this::createQuery);
         binding.recyclerView.setAdapter(adapter);
 
         adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
@@ -106,11 +117,17 @@ public class GenreDetailActivity extends AbsMusicContentActivity implements CabH
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
         int id = item.getItemId();
         switch (id) {
+            case R.id.action_play:
+                MusicPlayerRemote.openSource(QueueSource.create(createQuery()), true);
+                return true;
             case R.id.action_shuffle_genre:
-                MusicPlayerRemote.openAndShuffleQueue(adapter.getDataSet(), true);
+                MusicPlayerRemote.openSource(QueueSource.shuffle(createQuery()), true);
                 return true;
             case R.id.action_download:
-                NavigationUtil.startDownload(this, adapter.getDataSet());
+                ItemQuery download = new ItemQuery();
+                download.setGenreIds(new String[]{genre.id});
+
+                NavigationUtil.startDownload(this, download);
                 return true;
         }
 
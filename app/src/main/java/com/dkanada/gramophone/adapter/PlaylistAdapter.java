@@ -13,12 +13,13 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.dkanada.gramophone.R;
-import com.dkanada.gramophone.adapter.base.AbsMultiSelectAdapter;
+import com.dkanada.gramophone.adapter.base.AbsDiffAdapter;
 import com.dkanada.gramophone.adapter.base.MediaEntryViewHolder;
 import com.dkanada.gramophone.dialogs.DeletePlaylistDialog;
 import com.dkanada.gramophone.dialogs.RenamePlaylistDialog;
 import com.dkanada.gramophone.glide.CustomGlideRequest;
 import com.dkanada.gramophone.glide.CustomPaletteTarget;
+import com.dkanada.gramophone.helper.SelectionResolver;
 import com.dkanada.gramophone.helper.menu.SongsMenuHelper;
 import com.dkanada.gramophone.interfaces.CabHolder;
 import com.dkanada.gramophone.model.Playlist;
@@ -29,7 +30,7 @@ import org.jellyfin.apiclient.model.querying.ItemQuery;
 
 import java.util.List;
 
-public class PlaylistAdapter extends AbsMultiSelectAdapter<PlaylistAdapter.ViewHolder, Playlist> {
+public class PlaylistAdapter extends AbsDiffAdapter<PlaylistAdapter.ViewHolder, Playlist> {
     protected final AppCompatActivity activity;
     protected List<Playlist> dataSet;
     protected int itemLayoutRes;
@@ -48,6 +49,11 @@ public class PlaylistAdapter extends AbsMultiSelectAdapter<PlaylistAdapter.ViewH
         return dataSet;
     }
 
+    @Override
+    protected void setDataSet(List<Playlist> dataSet) {
+        this.dataSet = dataSet;
+    }
+
     public void swapDataSet(List<Playlist> dataSet) {
         this.dataSet = dataSet;
         notifyDataSetChanged();
@@ -76,6 +82,13 @@ public class PlaylistAdapter extends AbsMultiSelectAdapter<PlaylistAdapter.ViewH
             holder.title.setText(playlist.name);
         }
 
+        onBindPosition(holder, position);
+
+        loadImage(playlist, holder);
+    }
+
+    @Override
+    protected void onBindPosition(@NonNull ViewHolder holder, int position) {
         if (holder.getBindingAdapterPosition() == getItemCount() - 1) {
             if (holder.shortSeparator != null) {
                 holder.shortSeparator.setVisibility(View.GONE);
@@ -85,8 +98,6 @@ public class PlaylistAdapter extends AbsMultiSelectAdapter<PlaylistAdapter.ViewH
                 holder.shortSeparator.setVisibility(View.VISIBLE);
             }
         }
-
-        loadImage(playlist, holder);
     }
 
     protected void loadImage(Playlist playlist, final PlaylistAdapter.ViewHolder holder) {
@@ -127,14 +138,7 @@ public class PlaylistAdapter extends AbsMultiSelectAdapter<PlaylistAdapter.ViewH
         if (menuItem.getItemId() == R.id.action_delete_playlist) {
             DeletePlaylistDialog.create(selection).show(activity.getSupportFragmentManager(), DeletePlaylistDialog.TAG);
         } else {
-            for (Playlist playlist : selection) {
-                ItemQuery songs = new ItemQuery();
-                songs.setParentId(playlist.id);
-
-                QueryUtil.getSongs(songs, (media) -> {
-                    SongsMenuHelper.handleMenuClick(activity, media, menuItem.getItemId());
-                });
-            }
+            SelectionResolver.resolvePlaylists(selection, SongsMenuHelper.handleMenuStream(activity, menuItem.getItemId()));
         }
     }
 
@@ -10,11 +10,12 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.activities.SplashActivity;
+import com.dkanada.gramophone.database.DatabaseExecutor;
 import com.dkanada.gramophone.model.User;
 import com.dkanada.gramophone.util.PreferenceUtil;
+import com.dkanada.gramophone.util.ResponseCache;
 import com.dkanada.gramophone.views.IconImageView;
 
 import java.util.List;
@@ -71,6 +72,9 @@ public class SelectAdapter extends RecyclerView.Adapter<SelectAdapter.ViewHolder
         public void onSelect(View v) {
             final User user = users.get(getBindingAdapterPosition());
 
+            // cached responses contain the user data of the previous user
+            if (!user.id.equals(PreferenceUtil.getInstance(activity).getUser())) ResponseCache.clear();
+
             PreferenceUtil.getInstance(activity).setServer(user.server);
             PreferenceUtil.getInstance(activity).setUser(user.id);
 
@@ -80,7 +84,7 @@ public class SelectAdapter extends RecyclerView.Adapter<SelectAdapter.ViewHolder
         public void onDelete(View v) {
             final User user = users.get(getBindingAdapterPosition());
 
-            App.getDatabase().userDao().deleteUser(user);
+            DatabaseExecutor.write(database -> database.userDao().deleteUser(user));
             users.remove(user);
             notifyDataSetChanged();
         }
@@ -12,14 +12,14 @@ import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.dkanada.gramophone.util.QueryUtil;
 import com.kabouzeid.appthemehelper.util.ColorUtil;
 import com.kabouzeid.appthemehelper.util.MaterialValueHelper;
 import com.dkanada.gramophone.R;
-import com.dkanada.gramophone.adapter.base.AbsMultiSelectAdapter;
+import com.dkanada.gramophone.adapter.base.AbsDiffAdapter;
 import com.dkanada.gramophone.adapter.base.MediaEntryViewHolder;
 import com.dkanada.gramophone.glide.CustomGlideRequest;
 import com.dkanada.gramophone.glide.CustomPaletteTarget;
+import com.dkanada.gramophone.helper.SelectionResolver;
 import com.dkanada.gramophone.helper.menu.SongsMenuHelper;
 import com.dkanada.gramophone.interfaces.CabHolder;
 import com.dkanada.gramophone.model.Album;
@@ -28,11 +28,10 @@ import com.dkanada.gramophone.util.NavigationUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.simplecityapps.recyclerview_fastscroll.views.FastScrollRecyclerView;
 
-import org.jellyfin.apiclient.model.querying.ItemQuery;
-
 import java.util.List;
+import java.util.Objects;
 
-public class AlbumAdapter extends AbsMultiSelectAdapter<AlbumAdapter.ViewHolder, Album> implements FastScrollRecyclerView.SectionedAdapter {
+public class AlbumAdapter extends AbsDiffAdapter<AlbumAdapter.ViewHolder, Album> implements FastScrollRecyclerView.SectionedAdapter {
     protected final AppCompatActivity activity;
     protected List<Album> dataSet;
 
@@ -65,6 +64,11 @@ public class AlbumAdapter extends AbsMultiSelectAdapter<AlbumAdapter.ViewHolder,
         return dataSet;
     }
 
+    @Override
+    protected void setDataSet(List<Album> dataSet) {
+        this.dataSet = dataSet;
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -91,15 +95,7 @@ public class AlbumAdapter extends AbsMultiSelectAdapter<AlbumAdapter.ViewHolder,
         final boolean isChecked = isChecked(album);
         holder.itemView.setActivated(isChecked);
 
-        if (holder.getBindingAdapterPosition() == getItemCount() - 1) {
-            if (holder.shortSeparator != null) {
-                holder.shortSeparator.setVisibility(View.GONE);
-            }
-        } else {
-            if (holder.shortSeparator != null) {
-                holder.shortSeparator.setVisibility(View.VISIBLE);
-            }
-        }
+        onBindPosition(holder, position);
 
         if (holder.title != null) {
             holder.title.setText(getAlbumTitle(album));
@@ -112,6 +108,19 @@ public class AlbumAdapter extends AbsMultiSelectAdapter<AlbumAdapter.ViewHolder,
         loadAlbumCover(album, holder);
     }
 
+    @Override
+    protected void onBindPosition(@NonNull ViewHolder holder, int position) {
+        if (holder.getBindingAdapterPosition() == getItemCount() - 1) {
+            if (holder.shortSeparator != null) {
+                holder.shortSeparator.setVisibility(View.GONE);
+            }
+        } else {
+            if (holder.shortSeparator != null) {
+                holder.shortSeparator.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
     protected void setColors(int color, ViewHolder holder) {
         if (holder.paletteColorContainer != null) {
             holder.paletteColorContainer.setBackgroundColor(color);
@@ -170,15 +179,15 @@ public class AlbumAdapter extends AbsMultiSelectAdapter<AlbumAdapter.ViewHolder,
     }
 
     @Override
-    protected void onMultipleItemAction(@NonNull MenuItem menuItem, @NonNull List<Album> selection) {
-        for (Album album : selection) {
-            ItemQuery songs = new ItemQuery();
-            songs.setParentId(album.id);
+    protected boolean areContentsTheSame(Album oldItem, Album newItem) {
+        return Objects.equals(oldItem.title, newItem.title)
+                && Objects.equals(oldItem.artistName, newItem.artistName)
+                && Objects.equals(oldItem.primary, newItem.primary);
+    }
 
-            QueryUtil.getSongs(songs, (media) -> {
-                SongsMenuHelper.handleMenuClick(activity, media, menuItem.getItemId());
-            });
-        }
+    @Override
+    protected void onMultipleItemAction(@NonNull MenuItem menuItem, @NonNull List<Album> selection) {
+        SelectionResolver.resolveAlbums(selection, SongsMenuHelper.handleMenuStream(activity, menuItem.getItemId()));
     }
 
     @NonNull
@@ -12,14 +12,14 @@ import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.dkanada.gramophone.util.QueryUtil;
 import com.kabouzeid.appthemehelper.util.ColorUtil;
 import com.kabouzeid.appthemehelper.util.MaterialValueHelper;
 import com.dkanada.gramophone.R;
-import com.dkanada.gramophone.adapter.base.AbsMultiSelectAdapter;
+import com.dkanada.gramophone.adapter.base.AbsDiffAdapter;
 import com.dkanada.gramophone.adapter.base.MediaEntryViewHolder;
 import com.dkanada.gramophone.glide.CustomGlideRequest;
 import com.dkanada.gramophone.glide.CustomPaletteTarget;
+import com.dkanada.gramophone.helper.SelectionResolver;
 import com.dkanada.gramophone.helper.menu.SongsMenuHelper;
 import com.dkanada.gramophone.interfaces.CabHolder;
 import com.dkanada.gramophone.model.Artist;
@@ -27,12 +27,9 @@ import com.dkanada.gramophone.util.MusicUtil;
 import com.dkanada.gramophone.util.NavigationUtil;
 import com.simplecityapps.recyclerview_fastscroll.views.FastScrollRecyclerView;
 
-import org.jellyfin.apiclient.model.querying.ItemQuery;
-
-import java.util.ArrayList;
 import java.util.List;
 
-public class ArtistAdapter extends AbsMultiSelectAdapter<ArtistAdapter.ViewHolder, Artist> implements FastScrollRecyclerView.SectionedAdapter {
+public class ArtistAdapter extends AbsDiffAdapter<ArtistAdapter.ViewHolder, Artist> implements FastScrollRecyclerView.SectionedAdapter {
     protected final AppCompatActivity activity;
     protected List<Artist> dataSet;
 
@@ -58,6 +55,11 @@ public class ArtistAdapter extends AbsMultiSelectAdapter<ArtistAdapter.ViewHolde
         return dataSet;
     }
 
+    @Override
+    protected void setDataSet(List<Artist> dataSet) {
+        this.dataSet = dataSet;
+    }
+
     public void usePalette(boolean usePalette) {
         this.usePalette = usePalette;
         notifyDataSetChanged();
@@ -83,15 +85,7 @@ public class ArtistAdapter extends AbsMultiSelectAdapter<ArtistAdapter.ViewHolde
         boolean isChecked = isChecked(artist);
         holder.itemView.setActivated(isChecked);
 
-        if (holder.getBindingAdapterPosition() == getItemCount() - 1) {
-            if (holder.shortSeparator != null) {
-                holder.shortSeparator.setVisibility(View.GONE);
-            }
-        } else {
-            if (holder.shortSeparator != null) {
-                holder.shortSeparator.setVisibility(View.VISIBLE);
-            }
-        }
+        onBindPosition(holder, position);
 
         if (holder.title != null) {
             holder.title.setText(artist.name);
@@ -105,6 +99,19 @@ public class ArtistAdapter extends AbsMultiSelectAdapter<ArtistAdapter.ViewHolde
         loadArtistImage(artist, holder);
     }
 
+    @Override
+    protected void onBindPosition(@NonNull ViewHolder holder, int position) {
+        if (holder.getBindingAdapterPosition() == getItemCount() - 1) {
+            if (holder.shortSeparator != null) {
+                holder.shortSeparator.setVisibility(View.GONE);
+            }
+        } else {
+            if (holder.shortSeparator != null) {
+                holder.shortSeparator.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
     private void setColors(int color, ViewHolder holder) {
         if (holder.paletteColorContainer != null) {
             holder.paletteColorContainer.setBackgroundColor(color);
@@ -159,17 +166,7 @@ public class ArtistAdapter extends AbsMultiSelectAdapter<ArtistAdapter.ViewHolde
 
     @Override
     protected void onMultipleItemAction(@NonNull MenuItem menuItem, @NonNull List<Artist> selection) {
-        List<String> ids = new ArrayList<>();
-        for (Artist artist : selection) {
-            ids.add(artist.id);
-        }
-
-        ItemQuery songs = new ItemQuery();
-        songs.setArtistIds(ids.toArray(new String[0]));
-
-        QueryUtil.getSongs(songs, (media) -> {
-            SongsMenuHelper.handleMenuClick(activity, media, menuItem.getItemId());
-        });
+        SelectionResolver.resolveArtists(selection, SongsMenuHelper.handleMenuStream(activity, menuItem.getItemId()));
     }
 
     @NonNull
@@ -0,0 +1,191 @@
+package com.dkanada.gramophone.adapter.base;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+
+import androidx.annotation.MenuRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.dkanada.gramophone.interfaces.CabHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// dataset updates are dispatched as minimal change notifications instead of rebinding every holder
+// diffs are calculated off the main thread and updates are applied in the order they were submitted
+public abstract class AbsDiffAdapter<VH extends RecyclerView.ViewHolder, I> extends AbsMultiSelectAdapter<VH, I> {
+    // rebinds only what depends on the position of an item such as the separator
+    protected static final Object PAYLOAD_POSITION = new Object();
+
+    private static final Executor executor = Executors.newSingleThreadExecutor();
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    // the dataset once every submitted update has been applied
+    private List<I> pending;
+    private int queued;
+
+    public AbsDiffAdapter(Context context, @Nullable CabHolder cabHolder, @MenuRes int menuRes) {
+        super(context, cabHolder, menuRes);
+    }
+
+    public abstract List<I> getDataSet();
+
+    // replaces the dataset without notifying the adapter
+    protected abstract void setDataSet(List<I> dataSet);
+
+    // number of items shown before the dataset
+    protected int getOffset() {
+        return 0;
+    }
+
+    protected boolean areItemsTheSame(I oldItem, I newItem) {
+        return oldItem.equals(newItem);
+    }
+
+    protected boolean areContentsTheSame(I oldItem, I newItem) {
+        return TextUtils.equals(getName(oldItem), getName(newItem));
+    }
+
+    protected void onBindPosition(@NonNull VH holder, int position) {
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            super.onBindViewHolder(holder, position, payloads);
+            return;
+        }
+
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_POSITION) {
+                super.onBindViewHolder(holder, position, payloads);
+                return;
+            }
+        }
+
+        onBindPosition(holder, position);
+    }
+
+    public void appendItems(List<I> items) {
+        List<I> current = getPending();
+        List<I> next = new ArrayList<>(current);
+        next.addAll(items);
+
+        pending = next;
+        queued++;
+
+        // nothing to calculate but the update still has to wait for any diff submitted earlier
+        executor.execute(() -> handler.post(() -> {
+            int start = getDataSet().size();
+            setDataSet(next);
+            queued--;
+
+            if (start == 0) {
+                notifyDataSetChanged();
+            } else if (!items.isEmpty()) {
+                notifyItemRangeInserted(start + getOffset(), items.size());
+                notifyItemChanged(start - 1 + getOffset(), PAYLOAD_POSITION);
+            }
+        }));
+    }
+
+    public void submitItems(List<I> items) {
+        List<I> current = getPending();
+        List<I> next = new ArrayList<>(items);
+
+        pending = next;
+        queued++;
+
+        executor.execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffCallback(current, next));
+
+            handler.post(() -> {
+                setDataSet(next);
+                queued--;
+
+                if (current.isEmpty() || next.isEmpty()) {
+                    notifyDataSetChanged();
+                    return;
+                }
+
+                diff.dispatchUpdatesTo(new OffsetCallback());
+
+                // the separator belongs to whichever item ends up last
+                int last = diff.convertOldPositionToNew(current.size() - 1);
+                if (last != DiffUtil.DiffResult.NO_POSITION) notifyItemChanged(last + getOffset(), PAYLOAD_POSITION);
+                notifyItemChanged(next.size() - 1 + getOffset(), PAYLOAD_POSITION);
+            });
+        });
+    }
+
+    // items loaded into a dataset that was already sized such as placeholders being replaced
+    public void notifyItemsLoaded(int start, int count) {
+        notifyItemRangeChanged(start + getOffset(), count);
+    }
+
+    // the dataset may have been swapped or edited in place while nothing was queued
+    private List<I> getPending() {
+        if (queued == 0) pending = new ArrayList<>(getDataSet());
+        return pending;
+    }
+
+    private class DiffCallback extends DiffUtil.Callback {
+        private final List<I> oldItems;
+        private final List<I> newItems;
+
+        private DiffCallback(List<I> oldItems, List<I> newItems) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return AbsDiffAdapter.this.areItemsTheSame(oldItems.get(oldPosition), newItems.get(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return AbsDiffAdapter.this.areContentsTheSame(oldItems.get(oldPosition), newItems.get(newPosition));
+        }
+    }
+
+    private class OffsetCallback implements ListUpdateCallback {
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position + getOffset(), count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position + getOffset(), count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition + getOffset(), toPosition + getOffset());
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            notifyItemRangeChanged(position + getOffset(), count, payload);
+        }
+    }
+}
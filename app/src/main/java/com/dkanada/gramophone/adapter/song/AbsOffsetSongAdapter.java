@@ -10,7 +10,6 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.dkanada.gramophone.R;
-import com.dkanada.gramophone.helper.MusicPlayerRemote;
 import com.dkanada.gramophone.interfaces.CabHolder;
 import com.dkanada.gramophone.model.Song;
 
@@ -62,6 +61,11 @@ public abstract class AbsOffsetSongAdapter extends SongAdapter {
         return super.getIdentifier(position);
     }
 
+    @Override
+    protected int getOffset() {
+        return 1;
+    }
+
     @Override
     public int getItemCount() {
         int superItemCount = super.getItemCount();
@@ -99,7 +103,7 @@ public abstract class AbsOffsetSongAdapter extends SongAdapter {
             if (isInQuickSelectMode() && getItemViewType() != OFFSET_ITEM) {
                 toggleChecked(getBindingAdapterPosition());
             } else {
-                MusicPlayerRemote.openQueue(dataSet, getBindingAdapterPosition() - 1, true);
+                openQueue(getBindingAdapterPosition() - 1);
             }
         }
 
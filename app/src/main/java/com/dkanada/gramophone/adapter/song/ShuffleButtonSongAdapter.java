@@ -8,13 +8,15 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.dkanada.gramophone.util.ShortcutUtil;
 import com.kabouzeid.appthemehelper.ThemeStore;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.helper.MusicPlayerRemote;
+import com.dkanada.gramophone.helper.QueueSource;
 import com.dkanada.gramophone.interfaces.CabHolder;
 import com.dkanada.gramophone.model.Song;
 
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
 import java.util.List;
 
 public class ShuffleButtonSongAdapter extends AbsOffsetSongAdapter {
@@ -72,7 +74,7 @@ public class ShuffleButtonSongAdapter extends AbsOffsetSongAdapter {
         @Override
         public void onClick(View v) {
             if (getItemViewType() == OFFSET_ITEM) {
-                ShortcutUtil.getShuffle((media) -> MusicPlayerRemote.openAndShuffleQueue(media, true));
+                MusicPlayerRemote.openSource(QueueSource.shuffle(new ItemQuery()), true);
             }
 
             super.onClick(v);
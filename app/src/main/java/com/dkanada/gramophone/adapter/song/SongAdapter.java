@@ -13,14 +13,18 @@ import androidx.core.util.Pair;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.afollestad.materialcab.MaterialCab;
+import com.bumptech.glide.Glide;
+import com.kabouzeid.appthemehelper.util.ATHUtil;
 import com.kabouzeid.appthemehelper.util.ColorUtil;
 import com.kabouzeid.appthemehelper.util.MaterialValueHelper;
 import com.dkanada.gramophone.R;
-import com.dkanada.gramophone.adapter.base.AbsMultiSelectAdapter;
+import com.dkanada.gramophone.adapter.base.AbsDiffAdapter;
 import com.dkanada.gramophone.adapter.base.MediaEntryViewHolder;
 import com.dkanada.gramophone.glide.CustomGlideRequest;
 import com.dkanada.gramophone.glide.CustomPaletteTarget;
 import com.dkanada.gramophone.helper.MusicPlayerRemote;
+import com.dkanada.gramophone.helper.QueueSource;
+import com.dkanada.gramophone.helper.SparseList;
 import com.dkanada.gramophone.helper.menu.SongMenuHelper;
 import com.dkanada.gramophone.helper.menu.SongsMenuHelper;
 import com.dkanada.gramophone.interfaces.CabHolder;
@@ -31,9 +35,13 @@ import com.dkanada.gramophone.util.NavigationUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.simplecityapps.recyclerview_fastscroll.views.FastScrollRecyclerView;
 
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
 
-public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, Song> implements MaterialCab.Callback, FastScrollRecyclerView.SectionedAdapter {
+public class SongAdapter extends AbsDiffAdapter<SongAdapter.ViewHolder, Song> implements MaterialCab.Callback, FastScrollRecyclerView.SectionedAdapter {
     protected final AppCompatActivity activity;
     protected List<Song> dataSet;
 
@@ -42,6 +50,9 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
     protected boolean usePalette;
     protected boolean showSectionName;
 
+    // query behind the data set which is used to queue the whole list
+    private Supplier<ItemQuery> sourceQuery;
+
     public SongAdapter(AppCompatActivity activity, List<Song> dataSet, @LayoutRes int itemLayoutRes, boolean usePalette, @Nullable CabHolder cabHolder) {
         this(activity, dataSet, itemLayoutRes, usePalette, cabHolder, true);
     }
@@ -72,9 +83,18 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
         return dataSet;
     }
 
+    @Override
+    protected void setDataSet(List<Song> dataSet) {
+        this.dataSet = dataSet;
+    }
+
     @Override
     public long getItemId(int position) {
-        return dataSet.get(position).hashCode();
+        Song song = dataSet.get(position);
+
+        // placeholders need ids that can not collide with the offset item
+        if (song == null) return -3 - position;
+        return song.hashCode();
     }
 
     @NonNull
@@ -92,9 +112,33 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
     @Override
     public void onBindViewHolder(@NonNull final ViewHolder holder, int position) {
         final Song song = dataSet.get(position);
+        if (song == null) {
+            bindPlaceholder(holder);
+            return;
+        }
+
+        if (holder.menu != null) {
+            holder.menu.setVisibility(View.VISIBLE);
+        }
+
         boolean isChecked = isChecked(song);
         holder.itemView.setActivated(isChecked);
 
+        onBindPosition(holder, position);
+
+        if (holder.title != null) {
+            holder.title.setText(getSongTitle(song));
+        }
+
+        if (holder.text != null) {
+            holder.text.setText(getSongText(song));
+        }
+
+        loadAlbumCover(song, holder);
+    }
+
+    @Override
+    protected void onBindPosition(@NonNull ViewHolder holder, int position) {
         if (holder.getBindingAdapterPosition() == getItemCount() - 1) {
             if (holder.shortSeparator != null) {
                 holder.shortSeparator.setVisibility(View.GONE);
@@ -104,16 +148,29 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
                 holder.shortSeparator.setVisibility(View.VISIBLE);
             }
         }
+    }
+
+    protected void bindPlaceholder(final ViewHolder holder) {
+        holder.itemView.setActivated(false);
 
         if (holder.title != null) {
-            holder.title.setText(getSongTitle(song));
+            holder.title.setText("");
         }
 
         if (holder.text != null) {
-            holder.text.setText(getSongText(song));
+            holder.text.setText("");
         }
 
-        loadAlbumCover(song, holder);
+        if (holder.menu != null) {
+            holder.menu.setVisibility(View.INVISIBLE);
+        }
+
+        if (holder.image != null) {
+            Glide.with(activity).clear(holder.image);
+            holder.image.setImageResource(CustomGlideRequest.DEFAULT_IMAGE);
+        }
+
+        setColors(ATHUtil.resolveColor(activity, R.attr.defaultFooterColor), holder);
     }
 
     private void setColors(int color, ViewHolder holder) {
@@ -166,6 +223,23 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
         return dataSet.size();
     }
 
+    protected void openQueue(int position) {
+        if (sourceQuery == null && !(dataSet instanceof SparseList)) {
+            MusicPlayerRemote.openQueue(dataSet, position, true);
+            return;
+        }
+
+        // lists with a query can be longer than what was loaded so the queue is read from the query instead
+        Song song = dataSet.get(position);
+        if (song == null || sourceQuery == null) return;
+
+        MusicPlayerRemote.openSource(QueueSource.create(sourceQuery.get(), position, song), true);
+    }
+
+    public void setSourceQuery(Supplier<ItemQuery> sourceQuery) {
+        this.sourceQuery = sourceQuery;
+    }
+
     @Override
     protected Song getIdentifier(int position) {
         return dataSet.get(position);
@@ -176,6 +250,15 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
         return song.title;
     }
 
+    @Override
+    protected boolean areContentsTheSame(Song oldItem, Song newItem) {
+        return Objects.equals(oldItem.title, newItem.title)
+                && Objects.equals(oldItem.artistName, newItem.artistName)
+                && Objects.equals(oldItem.albumName, newItem.albumName)
+                && Objects.equals(oldItem.primary, newItem.primary)
+                && oldItem.favorite == newItem.favorite;
+    }
+
     @Override
     protected void onMultipleItemAction(@NonNull MenuItem menuItem, @NonNull List<Song> selection) {
         SongsMenuHelper.handleMenuClick(activity, selection, menuItem.getItemId());
@@ -188,6 +271,11 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
             return "";
         }
 
+        // the fast scroller can pass over positions that are not loaded yet
+        if (dataSet.get(position) == null) {
+            return "";
+        }
+
         @Nullable String sectionName = null;
         switch (PreferenceUtil.getInstance(activity).getSongSortMethod()) {
             case NAME:
@@ -266,7 +354,7 @@ public class SongAdapter extends AbsMultiSelectAdapter<SongAdapter.ViewHolder, S
             if (isInQuickSelectMode()) {
                 toggleChecked(getBindingAdapterPosition());
             } else {
-                MusicPlayerRemote.openQueue(dataSet, getBindingAdapterPosition(), true);
+                openQueue(getBindingAdapterPosition());
             }
         }
 
@@ -0,0 +1,72 @@
+package com.dkanada.gramophone.database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.dkanada.gramophone.App;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// every database call goes through here so sqlite is never touched on the main thread
+// writes are serialized on one thread while reads run in parallel against the write ahead log
+public class DatabaseExecutor {
+    private static final int READERS = 3;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(factory("database-writer"));
+    private static final ThreadPoolExecutor reader = new ThreadPoolExecutor(READERS, READERS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), factory("database-reader"));
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    static {
+        reader.allowCoreThreadTimeOut(true);
+    }
+
+    public static ExecutorService getReadExecutor() {
+        return reader;
+    }
+
+    public static ExecutorService getWriteExecutor() {
+        return writer;
+    }
+
+    public static <T> Future<T> read(Function<JellyDatabase, T> query) {
+        return reader.submit(() -> query.apply(App.getDatabase()));
+    }
+
+    // the callback is delivered on the main thread
+    public static <T> void read(Function<JellyDatabase, T> query, Consumer<T> callback) {
+        reader.execute(() -> {
+            T result = query.apply(App.getDatabase());
+            handler.post(() -> callback.accept(result));
+        });
+    }
+
+    public static void write(Consumer<JellyDatabase> update) {
+        writer.execute(() -> update.accept(App.getDatabase()));
+    }
+
+    // the callback is delivered on the main thread once the write is committed
+    public static void write(Consumer<JellyDatabase> update, Runnable callback) {
+        writer.execute(() -> {
+            update.accept(App.getDatabase());
+            handler.post(callback);
+        });
+    }
+
+    private static ThreadFactory factory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import com.dkanada.gramophone.model.Song;
+
+// pending download that survives the service being killed
+// the song id is the primary key so queueing the same song twice keeps a single job
+@Entity(
+        tableName = "downloadJobs",
+        indices = {
+                @Index({"state", "priority"})
+        }
+)
+public class DownloadJob extends Song {
+    public static final int STATE_QUEUED = 0;
+    public static final int STATE_RUNNING = 1;
+    public static final int STATE_FAILED = 2;
+
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_PLAYING = 10;
+
+    public int state;
+    public int priority;
+
+    // failed attempts so far and when the job may run again
+    public int attempts;
+    public long retryAt;
+
+    public long added;
+
+    public DownloadJob() {
+        super();
+    }
+
+    @Ignore
+    public DownloadJob(Song song, int priority) {
+        this.id = song.id;
+        this.title = song.title;
+        this.trackNumber = song.trackNumber;
+        this.discNumber = song.discNumber;
+        this.year = song.year;
+        this.duration = song.duration;
+
+        this.albumId = song.albumId;
+        this.albumName = song.albumName;
+
+        this.artistId = song.artistId;
+        this.artistName = song.artistName;
+
+        this.primary = song.primary;
+        this.blurHash = song.blurHash;
+        this.favorite = song.favorite;
+
+        this.path = song.path;
+        this.size = song.size;
+
+        this.container = song.container;
+        this.codec = song.codec;
+
+        this.sampleRate = song.sampleRate;
+        this.bitRate = song.bitRate;
+        this.bitDepth = song.bitDepth;
+        this.channels = song.channels;
+        this.cache = song.cache;
+
+        this.state = STATE_QUEUED;
+        this.priority = priority;
+        this.added = System.currentTimeMillis();
+    }
+}
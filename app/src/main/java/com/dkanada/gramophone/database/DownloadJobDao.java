@@ -0,0 +1,99 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Dao
+public abstract class DownloadJobDao {
+    // sqlite limits the number of variables in a single statement
+    private static final int BATCH = 500;
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    public abstract void insertJobs(List<DownloadJob> jobs);
+
+    // jobs that are already known are queued again at the higher of both priorities
+    @Query("UPDATE downloadJobs SET priority = MAX(priority, :priority), state = 0, attempts = 0, retryAt = 0"
+            + " WHERE id IN (:ids) AND state != 1")
+    public abstract void requeueJobs(List<String> ids, int priority);
+
+    @Query("UPDATE downloadJobs SET priority = MAX(priority, :priority) WHERE id IN (:ids)")
+    public abstract void raisePriority(List<String> ids, int priority);
+
+    @Query("SELECT * FROM downloadJobs WHERE state = 0 AND retryAt <= :now ORDER BY priority DESC, added LIMIT :limit")
+    public abstract List<DownloadJob> getRunnableJobs(long now, int limit);
+
+    // earliest time a job waiting on its backoff may run or null when nothing is waiting
+    @Query("SELECT MIN(retryAt) FROM downloadJobs WHERE state = 0")
+    public abstract Long getNextRetry();
+
+    @Query("SELECT (SELECT COUNT(*) FROM downloadJobs WHERE state != 2) + (SELECT COUNT(*) FROM downloadRequests)")
+    public abstract int getPendingCount();
+
+    @Insert
+    public abstract void insertRequest(DownloadRequest request);
+
+    @Update
+    public abstract void updateRequest(DownloadRequest request);
+
+    @Query("DELETE FROM downloadRequests WHERE id = :id")
+    public abstract void deleteRequest(long id);
+
+    @Query("SELECT * FROM downloadRequests ORDER BY id")
+    public abstract List<DownloadRequest> getRequests();
+
+    @Query("UPDATE downloadJobs SET state = :state WHERE id = :id")
+    public abstract void setState(String id, int state);
+
+    // jobs that were running when the process died start over from their partial file
+    @Query("UPDATE downloadJobs SET state = 0 WHERE state = 1")
+    public abstract void resetRunning();
+
+    @Query("UPDATE downloadJobs SET state = :state, attempts = attempts + 1, retryAt = :retryAt WHERE id = :id")
+    public abstract void setFailed(String id, int state, long retryAt);
+
+    @Query("DELETE FROM downloadJobs WHERE id = :id")
+    public abstract void deleteJob(String id);
+
+    @Transaction
+    public void enqueue(List<DownloadJob> jobs) {
+        insertJobs(jobs);
+
+        for (int start = 0; start < jobs.size(); start += BATCH) {
+            List<DownloadJob> batch = jobs.subList(start, Math.min(jobs.size(), start + BATCH));
+            List<String> ids = new ArrayList<>(batch.size());
+            for (DownloadJob job : batch) ids.add(job.id);
+
+            requeueJobs(ids, batch.get(0).priority);
+        }
+    }
+
+    // stores one resolved page together with the progress of the request
+    @Transaction
+    public void resolve(DownloadRequest request, List<DownloadJob> jobs, boolean done) {
+        enqueue(jobs);
+
+        if (done) {
+            deleteRequest(request.id);
+        } else {
+            updateRequest(request);
+        }
+    }
+
+    // jobs are given up after the last attempt and otherwise retried with exponential backoff
+    public void fail(DownloadJob job, int attempts, long backoff, long maximum) {
+        if (job.attempts + 1 >= attempts) {
+            setFailed(job.id, DownloadJob.STATE_FAILED, 0);
+            return;
+        }
+
+        long delay = Math.min(maximum, backoff << job.attempts);
+        setFailed(job.id, DownloadJob.STATE_QUEUED, System.currentTimeMillis() + delay);
+    }
+}
@@ -0,0 +1,61 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.model.SortMethod;
+
+import org.jellyfin.apiclient.model.entities.SortOrder;
+import org.jellyfin.apiclient.model.querying.ItemFields;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
+// item query whose songs should be downloaded which the service turns into jobs page by page
+@Entity(tableName = "downloadRequests")
+public class DownloadRequest {
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    public String parentId;
+    public String artistId;
+    public String genreId;
+
+    public int priority;
+
+    // songs of the query that were already turned into jobs
+    public int position;
+
+    public DownloadRequest() {
+    }
+
+    @Ignore
+    public DownloadRequest(ItemQuery query, int priority) {
+        this.parentId = query.getParentId();
+        this.artistId = first(query.getArtistIds());
+        this.genreId = first(query.getGenreIds());
+        this.priority = priority;
+    }
+
+    // sorted by id as well so the pages stay stable while the request is resolved
+    public ItemQuery getQuery() {
+        ItemQuery query = new ItemQuery();
+
+        query.setUserId(App.getApiClient().getCurrentUserId());
+        query.setRecursive(true);
+        query.setIncludeItemTypes(new String[]{"Audio"});
+        query.setFields(new ItemFields[]{ItemFields.MediaSources});
+        query.setSortBy(new String[]{SortMethod.NAME.getApi(), "Id"});
+        query.setSortOrder(SortOrder.Ascending);
+
+        query.setParentId(parentId);
+        if (artistId != null) query.setArtistIds(new String[]{artistId});
+        if (genreId != null) query.setGenreIds(new String[]{genreId});
+
+        return query;
+    }
+
+    private static String first(String[] ids) {
+        return ids != null && ids.length != 0 ? ids[0] : null;
+    }
+}
@@ -1,5 +1,9 @@
 package com.dkanada.gramophone.database;
 
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
 import androidx.annotation.NonNull;
 import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
@@ -8,21 +12,35 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 import com.dkanada.gramophone.model.Song;
 import com.dkanada.gramophone.model.User;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @androidx.room.Database(
         entities = {
                 Cache.class,
                 Song.class,
-                QueueSong.class,
-                User.class
+                QueuePart.class,
+                User.class,
+                LibrarySong.class,
+                LibraryAlbum.class,
+                LibraryArtist.class,
+                LibraryGenre.class,
+                QueueChange.class,
+                DownloadJob.class,
+                DownloadRequest.class
         },
-        version = 6,
+        version = 12,
         exportSchema = false
 )
 public abstract class JellyDatabase extends RoomDatabase {
     public abstract CacheDao cacheDao();
     public abstract SongDao songDao();
-    public abstract QueueSongDao queueSongDao();
+    public abstract QueueDao queueDao();
+    public abstract QueueChangeDao queueChangeDao();
     public abstract UserDao userDao();
+    public abstract LibraryDao libraryDao();
+    public abstract DownloadJobDao downloadJobDao();
 
     public static final Migration Migration2 = new Migration(1, 2) {
         @Override
@@ -76,4 +94,135 @@ public abstract class JellyDatabase extends RoomDatabase {
                 + "FOREIGN KEY (songId) REFERENCES songs(id) ON DELETE CASCADE)");
         }
     };
+
+    public static final Migration Migration7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE librarySongs (id TEXT NOT NULL PRIMARY KEY, title TEXT,"
+                + "trackNumber INTEGER NOT NULL, discNumber INTEGER NOT NULL, year INTEGER NOT NULL,"
+                + "duration INTEGER NOT NULL, albumId TEXT, albumName TEXT, artistId TEXT, artistName TEXT,"
+                + "`primary` TEXT, blurHash TEXT, favorite INTEGER NOT NULL, path TEXT, size INTEGER NOT NULL,"
+                + "container TEXT, codec TEXT, sampleRate INTEGER NOT NULL, bitRate INTEGER NOT NULL,"
+                + "bitDepth INTEGER NOT NULL, channels INTEGER NOT NULL, cache INTEGER NOT NULL DEFAULT 1,"
+                + "library TEXT, added INTEGER NOT NULL, synced INTEGER NOT NULL)");
+
+            database.execSQL("CREATE TABLE libraryAlbums (id TEXT NOT NULL PRIMARY KEY, title TEXT,"
+                + "year INTEGER NOT NULL, artistId TEXT, artistName TEXT, `primary` TEXT, blurHash TEXT,"
+                + "library TEXT, added INTEGER NOT NULL, synced INTEGER NOT NULL)");
+
+            database.execSQL("CREATE TABLE libraryArtists (id TEXT NOT NULL PRIMARY KEY, name TEXT,"
+                + "`primary` TEXT, blurHash TEXT, library TEXT, added INTEGER NOT NULL, synced INTEGER NOT NULL)");
+
+            database.execSQL("CREATE TABLE libraryGenres (id TEXT NOT NULL PRIMARY KEY, name TEXT,"
+                + "songCount INTEGER NOT NULL, `primary` TEXT, blurHash TEXT, library TEXT, synced INTEGER NOT NULL)");
+
+            database.execSQL("CREATE INDEX index_librarySongs_library ON librarySongs (library)");
+            database.execSQL("CREATE INDEX index_libraryAlbums_library ON libraryAlbums (library)");
+            database.execSQL("CREATE INDEX index_libraryArtists_library ON libraryArtists (library)");
+            database.execSQL("CREATE INDEX index_libraryGenres_library ON libraryGenres (library)");
+        }
+    };
+
+    public static final Migration Migration8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE queueChanges (id INTEGER NOT NULL PRIMARY KEY AUTOINCREMENT,"
+                + "type INTEGER NOT NULL, position INTEGER NOT NULL, target INTEGER NOT NULL,"
+                + "shuffled INTEGER NOT NULL, songs TEXT, `order` BLOB)");
+        }
+    };
+
+    public static final Migration Migration9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE queueParts (part INTEGER NOT NULL PRIMARY KEY, data BLOB)");
+
+            // the journal refers to the old queues so it is kept and replayed on top of the converted snapshot
+            QueueSnapshot snapshot = QueueSnapshot.fromIds(getQueue(database, 0), getQueue(database, 1));
+            byte[] data = snapshot.encode();
+
+            for (int i = 0; i * QueuePart.SIZE < data.length; i++) {
+                int start = i * QueuePart.SIZE;
+                ContentValues values = new ContentValues();
+                values.put("part", i);
+                values.put("data", Arrays.copyOfRange(data, start, Math.min(data.length, start + QueuePart.SIZE)));
+                database.insert("queueParts", SQLiteDatabase.CONFLICT_REPLACE, values);
+            }
+
+            database.execSQL("DROP TABLE queueSongs");
+        }
+
+        private List<String> getQueue(SupportSQLiteDatabase database, int queue) {
+            List<String> ids = new ArrayList<>();
+            try (Cursor cursor = database.query("SELECT songId FROM queueSongs WHERE queue = ? ORDER BY `index`", new Object[]{queue})) {
+                while (cursor.moveToNext()) {
+                    if (!cursor.isNull(0)) ids.add(cursor.getString(0));
+                }
+            }
+
+            return ids;
+        }
+    };
+
+    public static final Migration Migration10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE downloadJobs (id TEXT NOT NULL PRIMARY KEY, title TEXT,"
+                + "trackNumber INTEGER NOT NULL, discNumber INTEGER NOT NULL, year INTEGER NOT NULL,"
+                + "duration INTEGER NOT NULL, albumId TEXT, albumName TEXT, artistId TEXT, artistName TEXT,"
+                + "`primary` TEXT, blurHash TEXT, favorite INTEGER NOT NULL, path TEXT, size INTEGER NOT NULL,"
+                + "container TEXT, codec TEXT, sampleRate INTEGER NOT NULL, bitRate INTEGER NOT NULL,"
+                + "bitDepth INTEGER NOT NULL, channels INTEGER NOT NULL, cache INTEGER NOT NULL DEFAULT 1,"
+                + "state INTEGER NOT NULL, priority INTEGER NOT NULL, attempts INTEGER NOT NULL,"
+                + "retryAt INTEGER NOT NULL, added INTEGER NOT NULL)");
+
+            database.execSQL("CREATE INDEX index_downloadJobs_state_priority ON downloadJobs (state, priority)");
+        }
+    };
+
+    public static final Migration Migration11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE downloadRequests (id INTEGER NOT NULL PRIMARY KEY AUTOINCREMENT,"
+                + "parentId TEXT, artistId TEXT, genreId TEXT, priority INTEGER NOT NULL, position INTEGER NOT NULL)");
+        }
+    };
+
+    // the mirror is rebuilt by the next sync so the old rows without a user are dropped
+    public static final Migration Migration12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("DROP TABLE librarySongs");
+            database.execSQL("DROP TABLE libraryAlbums");
+            database.execSQL("DROP TABLE libraryArtists");
+            database.execSQL("DROP TABLE libraryGenres");
+
+            database.execSQL("CREATE TABLE librarySongs (id TEXT NOT NULL, title TEXT,"
+                + "trackNumber INTEGER NOT NULL, discNumber INTEGER NOT NULL, year INTEGER NOT NULL,"
+                + "duration INTEGER NOT NULL, albumId TEXT, albumName TEXT, artistId TEXT, artistName TEXT,"
+                + "`primary` TEXT, blurHash TEXT, favorite INTEGER NOT NULL, path TEXT, size INTEGER NOT NULL,"
+                + "container TEXT, codec TEXT, sampleRate INTEGER NOT NULL, bitRate INTEGER NOT NULL,"
+                + "bitDepth INTEGER NOT NULL, channels INTEGER NOT NULL, cache INTEGER NOT NULL DEFAULT 1,"
+                + "user TEXT NOT NULL, library TEXT, added INTEGER NOT NULL, synced INTEGER NOT NULL,"
+                + "PRIMARY KEY(id, user))");
+
+            database.execSQL("CREATE TABLE libraryAlbums (id TEXT NOT NULL, title TEXT,"
+                + "year INTEGER NOT NULL, artistId TEXT, artistName TEXT, `primary` TEXT, blurHash TEXT,"
+                + "user TEXT NOT NULL, library TEXT, added INTEGER NOT NULL, synced INTEGER NOT NULL,"
+                + "PRIMARY KEY(id, user))");
+
+            database.execSQL("CREATE TABLE libraryArtists (id TEXT NOT NULL, name TEXT, `primary` TEXT, blurHash TEXT,"
+                + "user TEXT NOT NULL, library TEXT, added INTEGER NOT NULL, synced INTEGER NOT NULL,"
+                + "PRIMARY KEY(id, user))");
+
+            database.execSQL("CREATE TABLE libraryGenres (id TEXT NOT NULL, name TEXT, songCount INTEGER NOT NULL,"
+                + "`primary` TEXT, blurHash TEXT, user TEXT NOT NULL, library TEXT, synced INTEGER NOT NULL,"
+                + "PRIMARY KEY(id, user))");
+
+            database.execSQL("CREATE INDEX index_librarySongs_user_library ON librarySongs (user, library)");
+            database.execSQL("CREATE INDEX index_libraryAlbums_user_library ON libraryAlbums (user, library)");
+            database.execSQL("CREATE INDEX index_libraryArtists_user_library ON libraryArtists (user, library)");
+            database.execSQL("CREATE INDEX index_libraryGenres_user_library ON libraryGenres (user, library)");
+        }
+    };
 }
@@ -0,0 +1,46 @@
+package com.dkanada.gramophone.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import com.dkanada.gramophone.model.Album;
+import com.dkanada.gramophone.util.ItemsDecoder;
+
+@Entity(
+        tableName = "libraryAlbums",
+        primaryKeys = {
+                "id",
+                "user"
+        },
+        indices = {
+                @Index({"user", "library"})
+        }
+)
+public class LibraryAlbum extends Album implements ItemsDecoder.Dated {
+    @NonNull
+    public String user;
+    public String library;
+
+    public long added;
+    public long synced;
+
+    public LibraryAlbum() {
+        super();
+    }
+
+    @Ignore
+    public LibraryAlbum(String user, String library, long synced) {
+        super();
+
+        this.user = user;
+        this.library = library;
+        this.synced = synced;
+    }
+
+    @Override
+    public void setAdded(long added) {
+        this.added = added;
+    }
+}
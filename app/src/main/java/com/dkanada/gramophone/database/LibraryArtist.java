@@ -0,0 +1,46 @@
+package com.dkanada.gramophone.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import com.dkanada.gramophone.model.Artist;
+import com.dkanada.gramophone.util.ItemsDecoder;
+
+@Entity(
+        tableName = "libraryArtists",
+        primaryKeys = {
+                "id",
+                "user"
+        },
+        indices = {
+                @Index({"user", "library"})
+        }
+)
+public class LibraryArtist extends Artist implements ItemsDecoder.Dated {
+    @NonNull
+    public String user;
+    public String library;
+
+    public long added;
+    public long synced;
+
+    public LibraryArtist() {
+        super();
+    }
+
+    @Ignore
+    public LibraryArtist(String user, String library, long synced) {
+        super();
+
+        this.user = user;
+        this.library = library;
+        this.synced = synced;
+    }
+
+    @Override
+    public void setAdded(long added) {
+        this.added = added;
+    }
+}
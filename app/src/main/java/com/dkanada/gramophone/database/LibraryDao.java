@@ -0,0 +1,145 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.dkanada.gramophone.model.Album;
+import com.dkanada.gramophone.model.Artist;
+import com.dkanada.gramophone.model.Genre;
+import com.dkanada.gramophone.model.Song;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Dao
+public abstract class LibraryDao {
+    // sqlite limits the number of variables in a single statement
+    private static final int BATCH = 500;
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertSongs(List<LibrarySong> songs);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertAlbums(List<LibraryAlbum> albums);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertArtists(List<LibraryArtist> artists);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertGenres(List<LibraryGenre> genres);
+
+    // rows that were not touched by a full sync no longer exist on the server
+    @Query("DELETE FROM librarySongs WHERE user = :user AND library = :library AND synced < :synced")
+    public abstract void pruneSongs(String user, String library, long synced);
+
+    @Query("DELETE FROM libraryAlbums WHERE user = :user AND library = :library AND synced < :synced")
+    public abstract void pruneAlbums(String user, String library, long synced);
+
+    @Query("DELETE FROM libraryArtists WHERE user = :user AND library = :library AND synced < :synced")
+    public abstract void pruneArtists(String user, String library, long synced);
+
+    @Query("DELETE FROM libraryGenres WHERE user = :user AND library = :library AND synced < :synced")
+    public abstract void pruneGenres(String user, String library, long synced);
+
+    // results are mapped to the plain models so they compare equal to items from the server
+    @RawQuery
+    public abstract List<Song> getSongs(SupportSQLiteQuery query);
+
+    @RawQuery
+    public abstract List<Album> getAlbums(SupportSQLiteQuery query);
+
+    @RawQuery
+    public abstract List<Artist> getArtists(SupportSQLiteQuery query);
+
+    @RawQuery
+    public abstract List<Genre> getGenres(SupportSQLiteQuery query);
+
+    @Query("DELETE FROM librarySongs WHERE id IN (:ids)")
+    public abstract void deleteSongs(List<String> ids);
+
+    @Query("DELETE FROM libraryAlbums WHERE id IN (:ids)")
+    public abstract void deleteAlbums(List<String> ids);
+
+    @Query("DELETE FROM libraryArtists WHERE id IN (:ids)")
+    public abstract void deleteArtists(List<String> ids);
+
+    @Query("DELETE FROM libraryGenres WHERE id IN (:ids)")
+    public abstract void deleteGenres(List<String> ids);
+
+    @Query("UPDATE librarySongs SET favorite = :favorite WHERE user = :user AND id = :id")
+    public abstract void setFavorite(String user, String id, boolean favorite);
+
+    @Query("UPDATE librarySongs SET favorite = 0 WHERE user = :user AND library = :library")
+    public abstract void clearFavorites(String user, String library);
+
+    @Query("UPDATE librarySongs SET favorite = 1 WHERE user = :user AND library = :library AND id IN (:ids)")
+    public abstract void addFavorites(String user, String library, List<String> ids);
+
+    @Query("SELECT DISTINCT albumId FROM librarySongs WHERE id IN (:ids)")
+    public abstract List<String> selectAlbumIds(List<String> ids);
+
+    @Query("SELECT id FROM librarySongs WHERE user = :user AND id IN (:ids)")
+    public abstract List<String> selectSongIds(String user, List<String> ids);
+
+    @Query("SELECT id FROM librarySongs WHERE user = :user AND favorite = 1 AND id IN (:ids)")
+    public abstract List<String> selectFavoriteIds(String user, List<String> ids);
+
+    @RawQuery
+    public abstract int getCount(SupportSQLiteQuery query);
+
+    // replaces the favorites of the user with the complete list from the server
+    @Transaction
+    public void setFavorites(String user, String library, List<String> ids) {
+        clearFavorites(user, library);
+
+        for (int start = 0; start < ids.size(); start += BATCH) {
+            addFavorites(user, library, ids.subList(start, Math.min(ids.size(), start + BATCH)));
+        }
+    }
+
+    public Set<String> getAlbumIds(List<String> ids) {
+        Set<String> albums = new HashSet<>();
+        for (int start = 0; start < ids.size(); start += BATCH) {
+            albums.addAll(selectAlbumIds(ids.subList(start, Math.min(ids.size(), start + BATCH))));
+        }
+
+        return albums;
+    }
+
+    public Set<String> getSongIds(String user, List<String> ids) {
+        Set<String> songs = new HashSet<>();
+        for (int start = 0; start < ids.size(); start += BATCH) {
+            songs.addAll(selectSongIds(user, ids.subList(start, Math.min(ids.size(), start + BATCH))));
+        }
+
+        return songs;
+    }
+
+    public Set<String> getFavoriteIds(String user, List<String> ids) {
+        Set<String> favorites = new HashSet<>();
+        for (int start = 0; start < ids.size(); start += BATCH) {
+            favorites.addAll(selectFavoriteIds(user, ids.subList(start, Math.min(ids.size(), start + BATCH))));
+        }
+
+        return favorites;
+    }
+
+    // the ids can belong to any kind of item so every table is checked
+    @Transaction
+    public void deleteItems(List<String> ids) {
+        for (int start = 0; start < ids.size(); start += BATCH) {
+            List<String> batch = ids.subList(start, Math.min(ids.size(), start + BATCH));
+
+            deleteSongs(batch);
+            deleteAlbums(batch);
+            deleteArtists(batch);
+            deleteGenres(batch);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.dkanada.gramophone.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import com.dkanada.gramophone.model.Genre;
+
+@Entity(
+        tableName = "libraryGenres",
+        primaryKeys = {
+                "id",
+                "user"
+        },
+        indices = {
+                @Index({"user", "library"})
+        }
+)
+public class LibraryGenre extends Genre {
+    @NonNull
+    public String user;
+    public String library;
+
+    public long synced;
+
+    public LibraryGenre() {
+        super();
+    }
+
+    @Ignore
+    public LibraryGenre(String user, String library, long synced) {
+        super();
+
+        this.user = user;
+        this.library = library;
+        this.synced = synced;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dkanada.gramophone.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.ItemsDecoder;
+
+// the songs table belongs to the queue so the library mirror needs a separate table
+@Entity(
+        tableName = "librarySongs",
+        primaryKeys = {
+                "id",
+                "user"
+        },
+        indices = {
+                @Index({"user", "library"})
+        }
+)
+public class LibrarySong extends Song implements ItemsDecoder.Dated {
+    // favorites are user data so every user keeps a separate mirror
+    @NonNull
+    public String user;
+    public String library;
+
+    public long added;
+    public long synced;
+
+    public LibrarySong() {
+        super();
+    }
+
+    @Ignore
+    public LibrarySong(String user, String library, long synced) {
+        super();
+
+        this.user = user;
+        this.library = library;
+        this.synced = synced;
+    }
+
+    @Override
+    public void setAdded(long added) {
+        this.added = added;
+    }
+}
@@ -0,0 +1,135 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+import com.dkanada.gramophone.helper.ShuffleHelper;
+import com.dkanada.gramophone.model.Song;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// single edit to the persisted queues that is replayed on top of the last snapshot
+@Entity(tableName = "queueChanges")
+public class QueueChange {
+    public static final int INSERT = 0;
+    public static final int REMOVE = 1;
+    public static final int MOVE = 2;
+    public static final int SHUFFLE = 3;
+    public static final int UNSHUFFLE = 4;
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    public int type;
+    public int position;
+    public int target;
+
+    // remove and move only touch the original queue when it was not shuffled
+    public boolean shuffled;
+
+    // comma separated song ids for inserts
+    public String songs;
+
+    // play order as indices into the previous playing queue
+    public byte[] order;
+
+    public QueueChange() {
+    }
+
+    @Ignore
+    private QueueChange(int type, int position, int target, boolean shuffled) {
+        this.type = type;
+        this.position = position;
+        this.target = target;
+        this.shuffled = shuffled;
+    }
+
+    public static QueueChange insert(int position, List<Song> songs) {
+        QueueChange change = new QueueChange(INSERT, position, 0, false);
+
+        StringBuilder builder = new StringBuilder(songs.size() * 37);
+        for (Song song : songs) {
+            if (builder.length() != 0) builder.append(',');
+            builder.append(song.id);
+        }
+
+        change.songs = builder.toString();
+        return change;
+    }
+
+    public static QueueChange remove(int position, boolean shuffled) {
+        return new QueueChange(REMOVE, position, 0, shuffled);
+    }
+
+    public static QueueChange move(int from, int to, boolean shuffled) {
+        return new QueueChange(MOVE, from, to, shuffled);
+    }
+
+    public static QueueChange shuffle(int[] order) {
+        QueueChange change = new QueueChange(SHUFFLE, 0, 0, true);
+
+        ByteBuffer buffer = ByteBuffer.allocate(order.length * 4);
+        buffer.asIntBuffer().put(order);
+
+        change.order = buffer.array();
+        return change;
+    }
+
+    public static QueueChange unshuffle() {
+        return new QueueChange(UNSHUFFLE, 0, 0, false);
+    }
+
+    public List<String> getSongIds() {
+        if (songs == null || songs.isEmpty()) return new ArrayList<>();
+        return Arrays.asList(songs.split(","));
+    }
+
+    public int[] getOrder() {
+        int[] result = new int[order.length / 4];
+        ByteBuffer.wrap(order).asIntBuffer().get(result);
+
+        return result;
+    }
+
+    // same list operations as the music service so replaying gives identical queues
+    public void apply(List<Song> playingQueue, List<Song> originalPlayingQueue, Map<String, Song> songs) {
+        switch (type) {
+            case INSERT:
+                // missing songs are inserted as null so later indices still match
+                List<Song> inserted = new ArrayList<>();
+                for (String id : getSongIds()) {
+                    inserted.add(songs.get(id));
+                }
+
+                playingQueue.addAll(position, inserted);
+                originalPlayingQueue.addAll(position, inserted);
+                break;
+            case REMOVE:
+                if (!shuffled) {
+                    playingQueue.remove(position);
+                    originalPlayingQueue.remove(position);
+                } else {
+                    originalPlayingQueue.remove(playingQueue.remove(position));
+                }
+                break;
+            case MOVE:
+                playingQueue.add(target, playingQueue.remove(position));
+                if (!shuffled) {
+                    originalPlayingQueue.add(target, originalPlayingQueue.remove(position));
+                }
+                break;
+            case SHUFFLE:
+                ShuffleHelper.applyOrder(playingQueue, getOrder());
+                break;
+            case UNSHUFFLE:
+                playingQueue.clear();
+                playingQueue.addAll(originalPlayingQueue);
+                break;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.model.Song;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Dao
+public abstract class QueueChangeDao {
+    @Insert
+    public abstract void insertChange(QueueChange change);
+
+    // existing rows are kept since the song may still be used by the snapshot
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    public abstract void insertSongs(List<Song> songs);
+
+    @Query("DELETE FROM queueChanges")
+    public abstract void deleteChanges();
+
+    @Query("SELECT COUNT(*) FROM queueChanges")
+    public abstract int getChangeCount();
+
+    @Query("SELECT * FROM queueChanges ORDER BY id")
+    public abstract List<QueueChange> getChanges();
+
+    @Transaction
+    public void addChange(QueueChange change, List<Song> songs) {
+        if (songs != null) insertSongs(songs);
+        insertChange(change);
+    }
+
+    // writes a snapshot of both queues and drops the changes it contains
+    @Transaction
+    public void setQueues(List<Song> playingQueue, List<Song> originalPlayingQueue) {
+        JellyDatabase database = App.getDatabase();
+
+        database.songDao().deleteSongs();
+        deleteChanges();
+
+        database.songDao().insertSongs(playingQueue);
+        database.queueDao().setSnapshot(QueueSnapshot.create(playingQueue, originalPlayingQueue));
+    }
+
+    // applies the changes recorded since the snapshot the queues were loaded from
+    @Transaction
+    public int replay(List<Song> playingQueue, List<Song> originalPlayingQueue) {
+        List<QueueChange> changes = getChanges();
+        Map<String, Song> songs = getSongs(changes);
+
+        for (int i = 0; i < changes.size(); i++) {
+            QueueChange change = changes.get(i);
+            try {
+                change.apply(playingQueue, originalPlayingQueue, songs);
+            } catch (IndexOutOfBoundsException exception) {
+                // the journal no longer matches the snapshot so the queues can not be trusted
+                exception.printStackTrace();
+                playingQueue.clear();
+                originalPlayingQueue.clear();
+                return i;
+            }
+        }
+
+        return changes.size();
+    }
+
+    private Map<String, Song> getSongs(List<QueueChange> changes) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (QueueChange change : changes) {
+            ids.addAll(change.getSongIds());
+        }
+
+        return App.getDatabase().queueDao().getSongs(ids);
+    }
+}
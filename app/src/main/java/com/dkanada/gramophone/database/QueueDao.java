@@ -0,0 +1,91 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.dkanada.gramophone.model.Song;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Dao
+public abstract class QueueDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertParts(List<QueuePart> parts);
+
+    @Query("DELETE FROM queueParts")
+    public abstract void deleteParts();
+
+    @Query("SELECT * FROM queueParts ORDER BY part")
+    public abstract List<QueuePart> getParts();
+
+    @Query("SELECT * FROM songs WHERE id IN (:ids)")
+    public abstract List<Song> selectSongs(List<String> ids);
+
+    @Transaction
+    public void setSnapshot(QueueSnapshot snapshot) {
+        byte[] data = snapshot.encode();
+        List<QueuePart> parts = new ArrayList<>();
+
+        for (int i = 0; i * QueuePart.SIZE < data.length; i++) {
+            int start = i * QueuePart.SIZE;
+            parts.add(new QueuePart(i, Arrays.copyOfRange(data, start, Math.min(data.length, start + QueuePart.SIZE))));
+        }
+
+        deleteParts();
+        insertParts(parts);
+    }
+
+    // returns an empty snapshot when nothing was saved or the format is unknown
+    public QueueSnapshot getSnapshot() {
+        List<QueuePart> parts = getParts();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        for (QueuePart part : parts) {
+            output.write(part.data, 0, part.data.length);
+        }
+
+        QueueSnapshot snapshot = parts.isEmpty() ? null : QueueSnapshot.decode(output.toByteArray());
+        return snapshot != null ? snapshot : new QueueSnapshot(new String[0], new int[0], new int[0]);
+    }
+
+    // songs for a range of the given order looked up in batches below the sqlite variable limit
+    // missing songs are kept as null so the indices of the journal and the position still line up
+    public List<Song> getSongs(QueueSnapshot snapshot, int[] order, int start, int end) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (int i = start; i < end; i++) {
+            ids.add(snapshot.ids[order[i]]);
+        }
+
+        Map<String, Song> songs = getSongs(ids);
+        List<Song> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(songs.get(snapshot.ids[order[i]]));
+        }
+
+        return result;
+    }
+
+    public Map<String, Song> getSongs(Set<String> ids) {
+        Map<String, Song> songs = new HashMap<>();
+        List<String> batch = new ArrayList<>(ids);
+
+        for (int i = 0; i < batch.size(); i += 500) {
+            List<String> window = batch.subList(i, Math.min(i + 500, batch.size()));
+            for (Song song : selectSongs(window)) {
+                songs.put(song.id, song);
+            }
+        }
+
+        return songs;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dkanada.gramophone.database;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+// encoded queue snapshot split into rows that stay well below the cursor window size
+@Entity(tableName = "queueParts")
+public class QueuePart {
+    public static final int SIZE = 512 * 1024;
+
+    @PrimaryKey
+    public int part;
+
+    public byte[] data;
+
+    public QueuePart() {
+    }
+
+    @Ignore
+    public QueuePart(int part, byte[] data) {
+        this.part = part;
+        this.data = data;
+    }
+}
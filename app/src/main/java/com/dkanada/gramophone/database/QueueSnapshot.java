@@ -0,0 +1,183 @@
+package com.dkanada.gramophone.database;
+
+import com.dkanada.gramophone.model.Song;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// both queues as a dictionary of song ids and two arrays of indices into it
+// jellyfin ids are plain hex so they are stored as 16 bytes instead of 32 characters
+public class QueueSnapshot {
+    public static final int VERSION = 1;
+
+    private static final byte IDS_HEX = 0;
+    private static final byte IDS_TEXT = 1;
+
+    public final String[] ids;
+    public final int[] playing;
+    public final int[] original;
+
+    public QueueSnapshot(String[] ids, int[] playing, int[] original) {
+        this.ids = ids;
+        this.playing = playing;
+        this.original = original;
+    }
+
+    public static QueueSnapshot create(List<Song> playingQueue, List<Song> originalPlayingQueue) {
+        List<String> playing = new ArrayList<>(playingQueue.size());
+        List<String> original = new ArrayList<>(originalPlayingQueue.size());
+
+        for (Song song : playingQueue) playing.add(song.id);
+        for (Song song : originalPlayingQueue) original.add(song.id);
+
+        return fromIds(playing, original);
+    }
+
+    public static QueueSnapshot fromIds(List<String> playing, List<String> original) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+
+        int[] playingOrder = index(playing, dictionary, ids);
+        int[] originalOrder = index(original, dictionary, ids);
+
+        return new QueueSnapshot(ids.toArray(new String[0]), playingOrder, originalOrder);
+    }
+
+    public int size() {
+        return playing.length;
+    }
+
+    public byte[] encode() {
+        boolean hex = true;
+        for (String id : ids) {
+            if (!isHex(id)) {
+                hex = false;
+                break;
+            }
+        }
+
+        byte[][] text = null;
+        int dictionary = ids.length * 16;
+        if (!hex) {
+            text = new byte[ids.length][];
+            dictionary = 0;
+
+            for (int i = 0; i < ids.length; i++) {
+                text[i] = ids[i].getBytes(StandardCharsets.UTF_8);
+                dictionary += 2 + text[i].length;
+            }
+        }
+
+        // most queues have fewer than 65536 distinct songs so two bytes per entry are enough
+        int width = ids.length <= 0xFFFF ? 2 : 4;
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 1 + 4 + dictionary + 4 + 4 + (playing.length + original.length) * width);
+
+        buffer.putInt(VERSION);
+        buffer.put(hex ? IDS_HEX : IDS_TEXT);
+        buffer.put((byte) width);
+
+        buffer.putInt(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            if (hex) {
+                putHex(buffer, ids[i]);
+            } else {
+                buffer.putShort((short) text[i].length);
+                buffer.put(text[i]);
+            }
+        }
+
+        putOrder(buffer, playing, width);
+        putOrder(buffer, original, width);
+
+        return buffer.array();
+    }
+
+    // returns null for data written by a different version
+    public static QueueSnapshot decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.remaining() < 4 || buffer.getInt() != VERSION) return null;
+
+        byte format = buffer.get();
+        int width = buffer.get();
+
+        String[] ids = new String[buffer.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            if (format == IDS_HEX) {
+                ids[i] = getHex(buffer);
+            } else {
+                byte[] text = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(text);
+                ids[i] = new String(text, StandardCharsets.UTF_8);
+            }
+        }
+
+        int[] playing = getOrder(buffer, width);
+        int[] original = getOrder(buffer, width);
+
+        return new QueueSnapshot(ids, playing, original);
+    }
+
+    private static int[] index(List<String> queue, Map<String, Integer> dictionary, List<String> ids) {
+        int[] order = new int[queue.size()];
+        for (int i = 0; i < order.length; i++) {
+            String id = queue.get(i);
+            Integer index = dictionary.get(id);
+            if (index == null) {
+                index = ids.size();
+                dictionary.put(id, index);
+                ids.add(id);
+            }
+
+            order[i] = index;
+        }
+
+        return order;
+    }
+
+    private static void putOrder(ByteBuffer buffer, int[] order, int width) {
+        buffer.putInt(order.length);
+        for (int index : order) {
+            if (width == 2) buffer.putShort((short) index);
+            else buffer.putInt(index);
+        }
+    }
+
+    private static int[] getOrder(ByteBuffer buffer, int width) {
+        int[] order = new int[buffer.getInt()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = width == 2 ? buffer.getShort() & 0xFFFF : buffer.getInt();
+        }
+
+        return order;
+    }
+
+    private static boolean isHex(String id) {
+        if (id == null || id.length() != 32) return false;
+        for (int i = 0; i < 32; i++) {
+            if (Character.digit(id.charAt(i), 16) == -1 || Character.isUpperCase(id.charAt(i))) return false;
+        }
+
+        return true;
+    }
+
+    private static void putHex(ByteBuffer buffer, String id) {
+        for (int i = 0; i < 32; i += 2) {
+            buffer.put((byte) ((Character.digit(id.charAt(i), 16) << 4) | Character.digit(id.charAt(i + 1), 16)));
+        }
+    }
+
+    private static String getHex(ByteBuffer buffer) {
+        char[] text = new char[32];
+        for (int i = 0; i < 32; i += 2) {
+            int value = buffer.get() & 0xFF;
+            text[i] = Character.forDigit(value >> 4, 16);
+            text[i + 1] = Character.forDigit(value & 0xF, 16);
+        }
+
+        return new String(text);
+    }
+}
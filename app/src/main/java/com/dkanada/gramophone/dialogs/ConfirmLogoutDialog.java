@@ -11,6 +11,7 @@ import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.helper.MusicPlayerRemote;
 import com.dkanada.gramophone.util.NavigationUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
+import com.dkanada.gramophone.util.ResponseCache;
 
 public class ConfirmLogoutDialog extends DialogFragment {
     public static final String TAG = ConfirmLogoutDialog.class.getSimpleName();
@@ -30,6 +31,7 @@ public class ConfirmLogoutDialog extends DialogFragment {
                 .negativeText(android.R.string.cancel)
                 .onPositive((dialog, which) -> {
                     MusicPlayerRemote.clearQueue();
+                    ResponseCache.clear();
 
                     PreferenceUtil.getInstance(requireContext()).setServer(null);
                     PreferenceUtil.getInstance(requireContext()).setUser(null);
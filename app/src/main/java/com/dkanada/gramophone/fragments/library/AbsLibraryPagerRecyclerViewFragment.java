@@ -1,11 +1,15 @@
 package com.dkanada.gramophone.fragments.library;
 
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.annotation.NonNull;
@@ -13,22 +17,82 @@ import androidx.annotation.StringRes;
 
 import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.databinding.FragmentMainActivityRecyclerViewBinding;
+import com.dkanada.gramophone.helper.EventListener;
+import com.dkanada.gramophone.service.SyncService;
+import com.dkanada.gramophone.util.LibraryUtil;
+import com.dkanada.gramophone.util.NavigationUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
+import com.dkanada.gramophone.util.QueryUtil;
 import com.google.android.material.appbar.AppBarLayout;
 import com.google.android.material.appbar.AppBarLayout.OnOffsetChangedListener;
 import com.kabouzeid.appthemehelper.ThemeStore;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.util.ViewUtil;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView.Adapter, L extends RecyclerView.LayoutManager, Q> extends AbsLibraryPagerFragment implements OnOffsetChangedListener {
     private FragmentMainActivityRecyclerViewBinding binding;
 
     private A adapter;
     private L layoutManager;
-    private Q query;
 
-    public int size;
-    public boolean loading;
+    // at most this many pages are requested ahead of the loaded items
+    private static final int MAX_REQUESTS = 3;
+
+    private final Map<Integer, Page> requests = new HashMap<>();
+    private final TreeMap<Integer, Page> ready = new TreeMap<>();
+
+    private int generation;
+    private int size = -1;
+    private int loaded;
+    private int end;
+
+    // items that were loaded before a reload and should be back before anything is replaced
+    private int restore;
+
+    // smoothed measurements used to size the next request
+    private float velocity;
+    private long latency = 500;
+    private int lastPosition;
+    private long lastScroll;
+
+    private boolean syncPending;
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, @NonNull Intent intent) {
+            if (intent.getAction() == null || QueryUtil.currentLibrary == null) return;
+
+            String library = QueryUtil.currentLibrary.getId();
+            switch (intent.getAction()) {
+                case SyncService.STATE_SYNCED:
+                    if (library.equals(intent.getStringExtra(SyncService.EXTRA_LIBRARY))) reload();
+                    break;
+                case EventListener.LIBRARY_CHANGED:
+                    // the mirror is refreshed first and the fragment reloads once that finishes
+                    // services cannot be started in the background so the sync waits until the fragment resumes
+                    if (!LibraryUtil.isSynced(library)) {
+                        reload();
+                    } else if (isResumed()) {
+                        NavigationUtil.startSync(context, library);
+                    } else {
+                        syncPending = true;
+                    }
+                    break;
+                case EventListener.USER_DATA_CHANGED:
+                    Set<String> items = new HashSet<>(intent.getStringArrayListExtra(EventListener.EXTRA_ITEMS));
+                    Set<String> favorites = new HashSet<>(intent.getStringArrayListExtra(EventListener.EXTRA_FAVORITES));
+                    onUserDataChanged(items, favorites);
+                    break;
+            }
+        }
+    };
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -43,12 +107,28 @@ public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView
 
         getLibraryFragment().addOnAppBarOffsetChangedListener(this);
 
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(SyncService.STATE_SYNCED);
+        filter.addAction(EventListener.LIBRARY_CHANGED);
+        filter.addAction(EventListener.USER_DATA_CHANGED);
+        requireActivity().registerReceiver(receiver, filter);
+
         initAdapter();
         initLayoutManager();
-        initQuery();
 
         initRecyclerView();
-        loadItems(0);
+        reset(getPageSize());
+    }
+
+    @Override
+    public void onResume() {
+        super.onResume();
+
+        if (syncPending && QueryUtil.currentLibrary != null) {
+            NavigationUtil.startSync(requireContext(), QueryUtil.currentLibrary.getId());
+        }
+
+        syncPending = false;
     }
 
     private void initAdapter() {
@@ -59,6 +139,18 @@ public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView
                 super.onChanged();
                 checkIsEmpty();
             }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                super.onItemRangeInserted(positionStart, itemCount);
+                checkIsEmpty();
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                super.onItemRangeRemoved(positionStart, itemCount);
+                checkIsEmpty();
+            }
         });
     }
 
@@ -66,23 +158,229 @@ public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView
         layoutManager = createLayoutManager();
     }
 
-    private void initQuery() {
-        query = createQuery();
-    }
-
     private void initRecyclerView() {
         ViewUtil.setUpFastScrollRecyclerViewColor(getActivity(), binding.recyclerView, ThemeStore.accentColor(requireActivity()));
 
         binding.recyclerView.setLayoutManager(layoutManager);
         binding.recyclerView.setAdapter(adapter);
+        binding.recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) velocity = 0;
+                fill(true);
+            }
+
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                measureVelocity();
+                fill(false);
+            }
+        });
     }
 
     protected void invalidateAdapter() {
         initAdapter();
-        initQuery();
 
         binding.recyclerView.setAdapter(adapter);
-        loadItems(0);
+        reset(getPageSize());
+    }
+
+    protected void reload() {
+        // everything up to the viewport is requested again in pages of the usual size
+        int visible = Math.min(loaded, findLastVisibleItemPosition() + 1);
+
+        reset(getPageSize());
+        if (!isSparse()) restore = visible;
+    }
+
+    private void reset(int limit) {
+        generation++;
+        requests.clear();
+        ready.clear();
+
+        size = -1;
+        loaded = 0;
+        restore = 0;
+        end = limit;
+        request(0, limit, true);
+    }
+
+    private void request(int limit) {
+        int index = end;
+
+        end += limit;
+        request(index, limit, false);
+    }
+
+    private void request(int index, int limit, boolean reset) {
+        // every page gets its own query since several requests can be in flight at the same time
+        Page page = new Page(index, limit, generation, reset, createQuery());
+
+        requests.put(page.index, page);
+        loadItems(page);
+    }
+
+    private void fill(boolean retry) {
+        if (adapter == null) return;
+
+        // failed pages are only retried after the user interacts with the list again
+        // this includes the first page which is the only way to learn the size of the list
+        if (retry) {
+            for (Page page : new ArrayList<>(requests.values())) {
+                if (!page.failed) continue;
+
+                page.failed = false;
+                page.start = SystemClock.elapsedRealtime();
+                loadItems(page);
+            }
+        }
+
+        if (size == -1) return;
+        if (isSparse()) {
+            fillSparse();
+            return;
+        }
+
+        int last = Math.max(findLastVisibleItemPosition(), 0);
+        int ahead = (int) (velocity * latency * 2);
+        int target = Math.min(size, Math.max(restore, last + getPageSize() / 2 + ahead));
+
+        while (end < target && requests.size() < MAX_REQUESTS) {
+            request(end < restore ? getPageSize() : getAdaptivePageSize(ahead));
+        }
+    }
+
+    // only the pages under the viewport are loaded so the fast scroller can jump anywhere
+    private void fillSparse() {
+        int page = getPageSize();
+        int first = Math.max(findFirstVisibleItemPosition(), 0);
+        int last = Math.max(findLastVisibleItemPosition(), first);
+
+        onVisibleRangeChanged(first, last);
+
+        int from = Math.max(0, first - page / 2) / page;
+        int to = Math.min(size - 1, last + page / 2) / page;
+        for (int i = from; i <= to && requests.size() < MAX_REQUESTS; i++) {
+            if (requests.containsKey(i * page) || isLoaded(i * page)) continue;
+
+            request(i * page, page, false);
+        }
+    }
+
+    // pages grow when the list is flung faster than the server can answer and shrink while it barely moves
+    private int getAdaptivePageSize(int ahead) {
+        int page = getPageSize();
+        return Math.max(page / 2, Math.min(page * 4, ahead));
+    }
+
+    private void measureVelocity() {
+        long now = SystemClock.elapsedRealtime();
+        int position = findLastVisibleItemPosition();
+
+        if (lastScroll != 0 && now > lastScroll) {
+            // scrolling back up matters as well since sparse lists load the pages above the viewport
+            float current = Math.abs(position - lastPosition) / (float) (now - lastScroll);
+            velocity = velocity * 0.7f + current * 0.3f;
+        }
+
+        lastPosition = position;
+        lastScroll = now;
+    }
+
+    private int findFirstVisibleItemPosition() {
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findFirstVisibleItemPosition();
+        }
+
+        return 0;
+    }
+
+    private int findLastVisibleItemPosition() {
+        if (layoutManager instanceof LinearLayoutManager) {
+            return ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        }
+
+        return 0;
+    }
+
+    private int getPageSize() {
+        return PreferenceUtil.getInstance(App.getInstance()).getPageSize();
+    }
+
+    private void onPageLoaded(Page page, int total, Runnable apply) {
+        if (page.generation != generation || requests.remove(page.index) == null) return;
+
+        size = total;
+        latency = (latency * 7 + SystemClock.elapsedRealtime() - page.start) / 8;
+
+        // sparse pages can be applied in any order
+        if (isSparse()) {
+            apply.run();
+            fill(false);
+            return;
+        }
+
+        page.apply = apply;
+        ready.put(page.index, page);
+
+        applyReady();
+        fill(false);
+    }
+
+    // a stale cached page was shown and the server returned something else for it
+    private void onPageRefreshed(Page page) {
+        if (page.generation != generation) return;
+
+        reload();
+    }
+
+    private void onPageFailed(Page page) {
+        if (page.generation != generation) return;
+
+        page.failed = true;
+
+        // the pages that did arrive are shown rather than keeping the old items around
+        restore = 0;
+        applyReady();
+    }
+
+    // pages can finish out of order so they are applied once every earlier page is in
+    // a reload keeps the old items on screen until every page up to the viewport is back
+    private void applyReady() {
+        if (loaded == 0 && getReadyEnd() < Math.min(restore, size)) return;
+
+        while (!ready.isEmpty() && ready.firstKey() <= loaded) {
+            Page next = ready.pollFirstEntry().getValue();
+            next.apply.run();
+
+            loaded = next.index + next.limit;
+        }
+    }
+
+    private int getReadyEnd() {
+        int end = 0;
+        for (Page page : ready.values()) {
+            if (page.index > end) break;
+
+            end = Math.max(end, page.index + page.limit);
+        }
+
+        return end;
+    }
+
+    protected void onUserDataChanged(Set<String> items, Set<String> favorites) {
+    }
+
+    // sparse fragments load pages by position instead of appending them
+    protected boolean isSparse() {
+        return false;
+    }
+
+    protected boolean isLoaded(int index) {
+        return index < loaded;
+    }
+
+    protected void onVisibleRangeChanged(int first, int last) {
     }
 
     protected void invalidateLayoutManager() {
@@ -102,10 +400,6 @@ public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView
         return layoutManager;
     }
 
-    protected Q getQuery() {
-        return query;
-    }
-
     @StringRes
     protected int getEmptyMessage() {
         return R.string.empty;
@@ -120,29 +414,48 @@ public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView
     @NonNull
     protected abstract Q createQuery();
 
-    protected abstract void loadItems(int index);
+    protected abstract void loadItems(Page page);
 
-    @Override
-    public void onOffsetChanged(AppBarLayout appBarLayout, int i) {
-        binding.container.setPadding(binding.container.getPaddingLeft(), binding.container.getPaddingTop(), binding.container.getPaddingRight(), getLibraryFragment().getTotalAppBarScrollingRange() + i);
+    protected class Page {
+        public final int index;
+        public final int limit;
+        public final Q query;
 
-        int last = 0;
-        if (!loading && getLayoutManager() instanceof GridLayoutManager) {
-            GridLayoutManager layoutManager = (GridLayoutManager) getLayoutManager();
-            last = layoutManager.findLastVisibleItemPosition();
-        } else if (!loading && getLayoutManager() instanceof LinearLayoutManager) {
-            LinearLayoutManager layoutManager = (LinearLayoutManager) getLayoutManager();
-            last = layoutManager.findLastVisibleItemPosition();
+        // the first page after a reset replaces everything that was loaded before
+        public final boolean reset;
+
+        private final int generation;
+        private long start = SystemClock.elapsedRealtime();
+        private boolean failed;
+        private Runnable apply;
+
+        private Page(int index, int limit, int generation, boolean reset, Q query) {
+            this.index = index;
+            this.limit = limit;
+            this.query = query;
+            this.generation = generation;
+            this.reset = reset;
         }
 
-        int page = PreferenceUtil.getInstance(App.getInstance()).getPageSize();
-        int total = getAdapter().getItemCount();
-        if (last > total - page / 2 && total < size) {
-            query = createQuery();
-            loading = true;
+        // the runnable adds the items to the adapter and runs on the main thread in page order
+        public void onLoad(int total, Runnable apply) {
+            onPageLoaded(this, total, apply);
+        }
 
-            loadItems(getAdapter().getItemCount());
+        public void onRefresh() {
+            onPageRefreshed(this);
         }
+
+        public void onError() {
+            onPageFailed(this);
+        }
+    }
+
+    @Override
+    public void onOffsetChanged(AppBarLayout appBarLayout, int i) {
+        binding.container.setPadding(binding.container.getPaddingLeft(), binding.container.getPaddingTop(), binding.container.getPaddingRight(), getLibraryFragment().getTotalAppBarScrollingRange() + i);
+
+        fill(false);
     }
 
     @Override
@@ -150,6 +463,7 @@ public abstract class AbsLibraryPagerRecyclerViewFragment<A extends RecyclerView
         super.onDestroyView();
 
         getLibraryFragment().removeOnAppBarOffsetChangedListener(this);
+        requireActivity().unregisterReceiver(receiver);
     }
 
     private void checkIsEmpty() {
@@ -9,10 +9,11 @@ import com.dkanada.gramophone.adapter.album.AlbumAdapter;
 import com.dkanada.gramophone.model.Album;
 import com.dkanada.gramophone.model.SortMethod;
 import com.dkanada.gramophone.model.SortOrder;
+import com.dkanada.gramophone.util.LibraryUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.dkanada.gramophone.util.QueryUtil;
+import com.dkanada.gramophone.util.RequestUtil;
 
-import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
 import org.jellyfin.apiclient.model.querying.ItemsResult;
@@ -54,30 +55,47 @@ public class AlbumsFragment extends AbsLibraryPagerRecyclerViewCustomGridSizeFra
         return query;
     }
 
-    protected void loadItems(int index) {
-        ItemQuery query = getQuery();
-        query.setStartIndex(index);
+    protected void loadItems(Page page) {
+        ItemQuery query = page.query;
+        query.setStartIndex(page.index);
+        query.setLimit(page.limit);
 
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        if (LibraryUtil.isSynced(query.getParentId())) {
+            LibraryUtil.getAlbums(query, (media, total) -> setItems(page, media, total));
+            return;
+        }
+
+        RequestUtil.getItems(query, new RequestUtil.RefreshResponse() {
             @Override
             public void onResponse(ItemsResult result) {
-                if (index == 0) getAdapter().getDataSet().clear();
+                List<Album> albums = new ArrayList<>();
                 for (BaseItemDto itemDto : result.getItems()) {
-                    getAdapter().getDataSet().add(new Album(itemDto));
+                    albums.add(new Album(itemDto));
                 }
 
-                size = result.getTotalRecordCount();
-                getAdapter().notifyDataSetChanged();
-                loading = false;
+                setItems(page, albums, result.getTotalRecordCount());
+            }
+
+            @Override
+            public void onRefresh(ItemsResult result) {
+                page.onRefresh();
             }
 
             @Override
             public void onError(Exception exception) {
                 exception.printStackTrace();
+                page.onError();
             }
         });
     }
 
+    private void setItems(Page page, List<Album> albums, int total) {
+        page.onLoad(total, () -> {
+            if (page.reset) getAdapter().submitItems(albums);
+            else getAdapter().appendItems(albums);
+        });
+    }
+
     @Override
     protected int getEmptyMessage() {
         return R.string.no_albums;
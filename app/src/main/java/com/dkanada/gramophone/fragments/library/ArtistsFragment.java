@@ -10,10 +10,11 @@ import com.dkanada.gramophone.adapter.artist.ArtistAdapter;
 import com.dkanada.gramophone.model.SortMethod;
 import com.dkanada.gramophone.model.SortOrder;
 import com.dkanada.gramophone.model.Artist;
+import com.dkanada.gramophone.util.LibraryUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.dkanada.gramophone.util.QueryUtil;
+import com.dkanada.gramophone.util.RequestUtil;
 
-import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.querying.ArtistsQuery;
 import org.jellyfin.apiclient.model.querying.ItemFields;
@@ -58,30 +59,47 @@ public class ArtistsFragment extends AbsLibraryPagerRecyclerViewCustomGridSizeFr
     }
 
     @Override
-    protected void loadItems(int index) {
-        ArtistsQuery query = getQuery();
-        query.setStartIndex(index);
+    protected void loadItems(Page page) {
+        ArtistsQuery query = page.query;
+        query.setStartIndex(page.index);
+        query.setLimit(page.limit);
 
-        App.getApiClient().GetAlbumArtistsAsync(query, new Response<ItemsResult>() {
+        if (LibraryUtil.isSynced(query.getParentId())) {
+            LibraryUtil.getArtists(query, (media, total) -> setItems(page, media, total));
+            return;
+        }
+
+        RequestUtil.getAlbumArtists(query, new RequestUtil.RefreshResponse() {
             @Override
             public void onResponse(ItemsResult result) {
-                if (index == 0) getAdapter().getDataSet().clear();
+                List<Artist> artists = new ArrayList<>();
                 for (BaseItemDto itemDto : result.getItems()) {
-                    getAdapter().getDataSet().add(new Artist(itemDto));
+                    artists.add(new Artist(itemDto));
                 }
 
-                size = result.getTotalRecordCount();
-                getAdapter().notifyDataSetChanged();
-                loading = false;
+                setItems(page, artists, result.getTotalRecordCount());
+            }
+
+            @Override
+            public void onRefresh(ItemsResult result) {
+                page.onRefresh();
             }
 
             @Override
             public void onError(Exception exception) {
                 exception.printStackTrace();
+                page.onError();
             }
         });
     }
 
+    private void setItems(Page page, List<Artist> artists, int total) {
+        page.onLoad(total, () -> {
+            if (page.reset) getAdapter().submitItems(artists);
+            else getAdapter().appendItems(artists);
+        });
+    }
+
     @Override
     protected int getEmptyMessage() {
         return R.string.no_artists;
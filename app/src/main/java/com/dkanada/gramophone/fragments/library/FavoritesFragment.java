@@ -4,6 +4,8 @@ import androidx.annotation.NonNull;
 import org.jellyfin.apiclient.model.querying.ItemFilter;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
 
+import java.util.Set;
+
 public class FavoritesFragment extends SongsFragment {
     @NonNull
     @Override
@@ -15,4 +17,10 @@ public class FavoritesFragment extends SongsFragment {
 
         return query;
     }
+
+    @Override
+    protected void onUserDataChanged(Set<String> items, Set<String> favorites) {
+        // favorites can be added or removed so the list itself has to change
+        reload();
+    }
 }
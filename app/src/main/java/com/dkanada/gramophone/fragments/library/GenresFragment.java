@@ -7,10 +7,11 @@ import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.adapter.GenreAdapter;
 import com.dkanada.gramophone.model.Genre;
+import com.dkanada.gramophone.util.LibraryUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.dkanada.gramophone.util.QueryUtil;
+import com.dkanada.gramophone.util.RequestUtil;
 
-import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.querying.ItemsByNameQuery;
 import org.jellyfin.apiclient.model.querying.ItemsResult;
@@ -47,30 +48,51 @@ public class GenresFragment extends AbsLibraryPagerRecyclerViewFragment<GenreAda
     }
 
     @Override
-    protected void loadItems(int index) {
-        ItemsByNameQuery query = getQuery();
-        query.setStartIndex(index);
+    protected void loadItems(Page page) {
+        ItemsByNameQuery query = page.query;
+        query.setStartIndex(page.index);
+        query.setLimit(page.limit);
 
-        App.getApiClient().GetGenresAsync(query, new Response<ItemsResult>() {
+        if (LibraryUtil.isSynced(query.getParentId())) {
+            LibraryUtil.getGenres(query, (media, total) -> setItems(page, media, total));
+            return;
+        }
+
+        RequestUtil.getGenres(query, new RequestUtil.RefreshResponse() {
             @Override
             public void onResponse(ItemsResult result) {
-                if (index == 0) getAdapter().getDataSet().clear();
+                List<Genre> genres = new ArrayList<>();
                 for (BaseItemDto itemDto : result.getItems()) {
-                    getAdapter().getDataSet().add(new Genre(itemDto));
+                    genres.add(new Genre(itemDto));
                 }
 
-                size = result.getTotalRecordCount();
-                getAdapter().notifyDataSetChanged();
-                loading = false;
+                setItems(page, genres, result.getTotalRecordCount());
+            }
+
+            @Override
+            public void onRefresh(ItemsResult result) {
+                page.onRefresh();
             }
 
             @Override
             public void onError(Exception exception) {
                 exception.printStackTrace();
+                page.onError();
             }
         });
     }
 
+    private void setItems(Page page, List<Genre> genres, int total) {
+        page.onLoad(total, () -> {
+            int start = page.reset ? 0 : getAdapter().getDataSet().size();
+            if (page.reset) getAdapter().getDataSet().clear();
+            getAdapter().getDataSet().addAll(genres);
+
+            if (start == 0) getAdapter().notifyDataSetChanged();
+            else getAdapter().notifyItemRangeInserted(start, genres.size());
+        });
+    }
+
     @Override
     protected int getEmptyMessage() {
         return R.string.no_genres;
@@ -9,8 +9,8 @@ import com.dkanada.gramophone.adapter.PlaylistAdapter;
 import com.dkanada.gramophone.model.Playlist;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.dkanada.gramophone.util.QueryUtil;
+import com.dkanada.gramophone.util.RequestUtil;
 
-import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
 import org.jellyfin.apiclient.model.querying.ItemsResult;
@@ -48,26 +48,34 @@ public class PlaylistsFragment extends AbsLibraryPagerRecyclerViewFragment<Playl
     }
 
     @Override
-    protected void loadItems(int index) {
-        ItemQuery query = getQuery();
-        query.setStartIndex(index);
+    protected void loadItems(Page page) {
+        ItemQuery query = page.query;
+        query.setStartIndex(page.index);
+        query.setLimit(page.limit);
 
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getItems(query, new RequestUtil.RefreshResponse() {
             @Override
             public void onResponse(ItemsResult result) {
-                if (index == 0) getAdapter().getDataSet().clear();
+                List<Playlist> playlists = new ArrayList<>();
                 for (BaseItemDto itemDto : result.getItems()) {
-                    getAdapter().getDataSet().add(new Playlist(itemDto));
+                    playlists.add(new Playlist(itemDto));
                 }
 
-                size = result.getTotalRecordCount();
-                getAdapter().notifyDataSetChanged();
-                loading = false;
+                page.onLoad(result.getTotalRecordCount(), () -> {
+                    if (page.reset) getAdapter().submitItems(playlists);
+                    else getAdapter().appendItems(playlists);
+                });
+            }
+
+            @Override
+            public void onRefresh(ItemsResult result) {
+                page.onRefresh();
             }
 
             @Override
             public void onError(Exception exception) {
                 exception.printStackTrace();
+                page.onError();
             }
         });
     }
@@ -7,13 +7,15 @@ import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.adapter.song.ShuffleButtonSongAdapter;
 import com.dkanada.gramophone.adapter.song.SongAdapter;
+import com.dkanada.gramophone.helper.SparseList;
 import com.dkanada.gramophone.model.Song;
 import com.dkanada.gramophone.model.SortMethod;
 import com.dkanada.gramophone.model.SortOrder;
+import com.dkanada.gramophone.util.LibraryUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 import com.dkanada.gramophone.util.QueryUtil;
+import com.dkanada.gramophone.util.RequestUtil;
 
-import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.querying.ItemFields;
 import org.jellyfin.apiclient.model.querying.ItemQuery;
@@ -21,8 +23,12 @@ import org.jellyfin.apiclient.model.querying.ItemsResult;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class SongsFragment extends AbsLibraryPagerRecyclerViewCustomGridSizeFragment<SongAdapter, GridLayoutManager, ItemQuery> {
+    // pages far away from the viewport are dropped once this many are loaded
+    private static final int MAX_PAGES = 10;
+
     @NonNull
     @Override
     protected GridLayoutManager createLayoutManager() {
@@ -36,7 +42,9 @@ public class SongsFragment extends AbsLibraryPagerRecyclerViewCustomGridSizeFrag
         notifyLayoutResChanged(itemLayoutRes);
         boolean usePalette = loadUsePalette();
 
-        List<Song> dataSet = getAdapter() == null ? new ArrayList<>() : getAdapter().getDataSet();
+        // the page size of a sparse list is fixed so a new one is needed once the preference changes
+        int pageSize = PreferenceUtil.getInstance(App.getInstance()).getPageSize();
+        List<Song> dataSet = getAdapter() != null && getDataSet().getPageSize() == pageSize ? getAdapter().getDataSet() : new SparseList<>(pageSize, MAX_PAGES);
         SongAdapter adapter;
 
         if (getGridSize() <= getMaxGridSizeForList()) {
@@ -55,9 +63,19 @@ public class SongsFragment extends AbsLibraryPagerRecyclerViewCustomGridSizeFrag
                     getLibraryFragment());
         }
 
+        adapter.setSourceQuery(this::createQuery);
         return adapter;
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+
+        if (getDataSet().getPageSize() != PreferenceUtil.getInstance(App.getInstance()).getPageSize()) {
+            invalidateAdapter();
+        }
+    }
+
     @NonNull
     @Override
     protected ItemQuery createQuery() {
@@ -77,30 +95,83 @@ public class SongsFragment extends AbsLibraryPagerRecyclerViewCustomGridSizeFrag
     }
 
     @Override
-    protected void loadItems(int index) {
-        ItemQuery query = getQuery();
-        query.setStartIndex(index);
+    protected void loadItems(Page page) {
+        ItemQuery query = page.query;
+        query.setStartIndex(page.index);
+        query.setLimit(page.limit);
+
+        if (LibraryUtil.isSynced(query.getParentId())) {
+            LibraryUtil.getSongs(query, (media, total) -> setItems(page, media, total));
+            return;
+        }
 
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getItems(query, new RequestUtil.RefreshResponse() {
             @Override
             public void onResponse(ItemsResult result) {
-                if (index == 0) getAdapter().getDataSet().clear();
+                List<Song> songs = new ArrayList<>();
                 for (BaseItemDto itemDto : result.getItems()) {
-                    getAdapter().getDataSet().add(new Song(itemDto));
+                    songs.add(new Song(itemDto));
                 }
 
-                size = result.getTotalRecordCount();
-                getAdapter().notifyDataSetChanged();
-                loading = false;
+                setItems(page, songs, result.getTotalRecordCount());
+            }
+
+            @Override
+            public void onRefresh(ItemsResult result) {
+                page.onRefresh();
             }
 
             @Override
             public void onError(Exception exception) {
                 exception.printStackTrace();
+                page.onError();
             }
         });
     }
 
+    private void setItems(Page page, List<Song> songs, int total) {
+        page.onLoad(total, () -> {
+            SparseList<Song> dataSet = getDataSet();
+            int size = dataSet.size();
+            if (page.reset) dataSet.clear();
+
+            dataSet.setSize(total);
+            dataSet.setPage(page.index, songs);
+
+            // placeholders are replaced in place unless the size of the list changed
+            if (page.reset || size != total) getAdapter().notifyDataSetChanged();
+            else getAdapter().notifyItemsLoaded(page.index, songs.size());
+        });
+    }
+
+    private SparseList<Song> getDataSet() {
+        return (SparseList<Song>) getAdapter().getDataSet();
+    }
+
+    @Override
+    protected boolean isSparse() {
+        return true;
+    }
+
+    @Override
+    protected boolean isLoaded(int index) {
+        return getDataSet().isLoaded(index);
+    }
+
+    @Override
+    protected void onVisibleRangeChanged(int first, int last) {
+        getDataSet().setPosition(first);
+    }
+
+    @Override
+    protected void onUserDataChanged(Set<String> items, Set<String> favorites) {
+        for (Song song : getDataSet().getLoaded()) {
+            if (items.contains(song.id)) song.favorite = favorites.contains(song.id);
+        }
+
+        getAdapter().notifyDataSetChanged();
+    }
+
     @Override
     protected int getEmptyMessage() {
         return R.string.no_songs;
@@ -19,7 +19,7 @@ import androidx.annotation.Nullable;
 
 import com.dkanada.gramophone.databinding.FragmentLibraryBinding;
 import com.dkanada.gramophone.helper.MusicPlayerRemote;
-import com.dkanada.gramophone.util.ShortcutUtil;
+import com.dkanada.gramophone.helper.QueueSource;
 import com.google.android.material.appbar.AppBarLayout;
 import com.afollestad.materialcab.MaterialCab;
 import com.kabouzeid.appthemehelper.ThemeStore;
@@ -41,6 +41,8 @@ import com.dkanada.gramophone.fragments.library.SongsFragment;
 import com.dkanada.gramophone.util.ThemeUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
 public class LibraryFragment extends AbsMainActivityFragment implements CabHolder, MainActivity.MainActivityFragmentCallbacks, ViewPager.OnPageChangeListener, SharedPreferences.OnSharedPreferenceChangeListener {
     private FragmentLibraryBinding binding;
 
@@ -231,7 +233,7 @@ public class LibraryFragment extends AbsMainActivityFragment implements CabHolde
         int id = item.getItemId();
         switch (id) {
             case R.id.action_shuffle_all:
-                ShortcutUtil.getShuffle((media) -> MusicPlayerRemote.openAndShuffleQueue(media, true));
+                MusicPlayerRemote.openSource(QueueSource.shuffle(new ItemQuery()), true);
                 return true;
             case R.id.action_new_playlist:
                 CreatePlaylistDialog.create().show(getChildFragmentManager(), "CREATE_PLAYLIST");
@@ -9,15 +9,19 @@ import com.bumptech.glide.Glide;
 import com.bumptech.glide.GlideBuilder;
 import com.bumptech.glide.Registry;
 import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
 import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.engine.cache.DiskLruCacheFactory;
+import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.module.AppGlideModule;
 import com.bumptech.glide.request.RequestOptions;
+import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.glide.palette.BitmapPaletteTranscoder;
 import com.dkanada.gramophone.glide.palette.BitmapPaletteWrapper;
 import com.dkanada.gramophone.util.PreferenceUtil;
 
 import java.io.File;
+import java.io.InputStream;
 
 @GlideModule
 public class CustomGlideModule extends AppGlideModule {
@@ -33,6 +37,7 @@ public class CustomGlideModule extends AppGlideModule {
     @Override
     public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
         registry.register(Bitmap.class, BitmapPaletteWrapper.class, new BitmapPaletteTranscoder(glide.getBitmapPool()));
+        registry.replace(GlideUrl.class, InputStream.class, new OkHttpUrlLoader.Factory(App.getHttpClient()));
     }
 
     @Override
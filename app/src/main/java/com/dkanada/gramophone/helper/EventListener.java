@@ -1,13 +1,23 @@
 package com.dkanada.gramophone.helper;
 
+import android.content.Intent;
 import android.util.Log;
 
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.BuildConfig;
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.database.LibraryDao;
+import com.dkanada.gramophone.util.QueryUtil;
+import com.dkanada.gramophone.util.ResponseCache;
+
 import org.jellyfin.apiclient.interaction.ApiClient;
 import org.jellyfin.apiclient.interaction.ApiEventListener;
 import org.jellyfin.apiclient.model.apiclient.RemoteLogoutReason;
 import org.jellyfin.apiclient.model.apiclient.SessionUpdatesEventArgs;
 import org.jellyfin.apiclient.model.dto.UserDto;
+import org.jellyfin.apiclient.model.dto.UserItemDataDto;
 import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo;
+import org.jellyfin.apiclient.model.querying.ItemFilter;
 import org.jellyfin.apiclient.model.session.BrowseRequest;
 import org.jellyfin.apiclient.model.session.GeneralCommand;
 import org.jellyfin.apiclient.model.session.MessageCommand;
@@ -16,8 +26,20 @@ import org.jellyfin.apiclient.model.session.PlaystateRequest;
 import org.jellyfin.apiclient.model.session.SessionInfoDto;
 import org.jellyfin.apiclient.model.session.UserDataChangeInfo;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 public class EventListener extends ApiEventListener {
     public static final String TAG = EventListener.class.getSimpleName();
+    public static final String PACKAGE_NAME = BuildConfig.APPLICATION_ID;
+
+    public static final String LIBRARY_CHANGED = PACKAGE_NAME + ".library_changed";
+    public static final String USER_DATA_CHANGED = PACKAGE_NAME + ".user_data_changed";
+
+    public static final String EXTRA_ITEMS = PACKAGE_NAME + ".extra.items";
+    public static final String EXTRA_FAVORITES = PACKAGE_NAME + ".extra.favorites";
 
     @Override
     public void onRemoteLoggedOut(ApiClient client, RemoteLogoutReason reason) {
@@ -32,6 +54,40 @@ public class EventListener extends ApiEventListener {
     @Override
     public void onLibraryChanged(ApiClient client, LibraryUpdateInfo info) {
         Log.i(TAG, "onLibraryChanged");
+
+        ArrayList<String> items = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        List<String> folders = new ArrayList<>();
+
+        for (String id : info.getItemsAdded()) added.add(id);
+        for (String id : info.getItemsUpdated()) items.add(id);
+        for (String id : info.getItemsRemoved()) removed.add(id);
+        for (String id : info.getFoldersAddedTo()) folders.add(id);
+        for (String id : info.getFoldersRemovedFrom()) folders.add(id);
+
+        items.addAll(added);
+        items.addAll(removed);
+        DatabaseExecutor.write(database -> {
+            LibraryDao dao = database.libraryDao();
+
+            // album track lists are keyed by the album so those have to be evicted as well
+            Set<String> invalid = new HashSet<>(items);
+            invalid.addAll(folders);
+            invalid.addAll(dao.getAlbumIds(items));
+
+            // listings only change when items were added or removed
+            if ((!added.isEmpty() || !removed.isEmpty()) && QueryUtil.currentLibrary != null) {
+                invalid.add(QueryUtil.currentLibrary.getId());
+            }
+
+            invalid.remove(null);
+            ResponseCache.invalidate(invalid);
+
+            dao.deleteItems(removed);
+
+            App.getInstance().sendBroadcast(new Intent(LIBRARY_CHANGED).putStringArrayListExtra(EXTRA_ITEMS, items));
+        });
     }
 
     @Override
@@ -117,6 +173,47 @@ public class EventListener extends ApiEventListener {
     @Override
     public void onUserDataChanged(ApiClient client, UserDataChangeInfo info) {
         Log.i(TAG, "onUserDataChanged");
+
+        List<String> items = new ArrayList<>();
+        Set<String> favorites = new HashSet<>();
+
+        for (UserItemDataDto userData : info.getUserDataList()) {
+            items.add(userData.getItemId());
+            if (Boolean.TRUE.equals(userData.getIsFavorite())) favorites.add(userData.getItemId());
+        }
+
+        String user = info.getUserId();
+        DatabaseExecutor.write(database -> {
+            LibraryDao dao = database.libraryDao();
+
+            // play counts and positions change far more often than favorites and are not mirrored
+            // items outside of the mirror cannot be compared so those are always treated as changed
+            Set<String> known = dao.getSongIds(user, items);
+            Set<String> mirrored = dao.getFavoriteIds(user, items);
+
+            ArrayList<String> changed = new ArrayList<>();
+            ArrayList<String> favorite = new ArrayList<>();
+            for (String id : items) {
+                boolean value = favorites.contains(id);
+                if (known.contains(id) && mirrored.contains(id) == value) continue;
+
+                if (known.contains(id)) dao.setFavorite(user, id, value);
+                if (value) favorite.add(id);
+                changed.add(id);
+            }
+
+            if (changed.isEmpty()) return;
+
+            // favorite listings are the only queries that depend on user data
+            Set<String> invalid = new HashSet<>(changed);
+            invalid.add(ItemFilter.IsFavorite.name());
+            ResponseCache.invalidate(invalid);
+
+            Intent intent = new Intent(USER_DATA_CHANGED);
+            intent.putStringArrayListExtra(EXTRA_ITEMS, changed);
+            intent.putStringArrayListExtra(EXTRA_FAVORITES, favorite);
+            App.getInstance().sendBroadcast(intent);
+        });
     }
 
     @Override
@@ -0,0 +1,106 @@
+package com.dkanada.gramophone.helper;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.http.HttpHeaders;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.net.HttpException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.FormBody;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+
+// api client requests go through the same okhttp instance as images and playback
+// callbacks are delivered on the main thread like the volley client did
+public class HttpClient implements IAsyncHttpClient {
+    private final OkHttpClient client;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    public HttpClient(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void Send(HttpRequest request, Response<String> response) {
+        Request.Builder builder = new Request.Builder().url(request.getUrl());
+
+        HttpHeaders headers = request.getRequestHeaders();
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+
+            if (headers.getAuthorizationScheme() != null && !headers.getAuthorizationScheme().isEmpty()) {
+                builder.header("X-Emby-Authorization", headers.getAuthorizationScheme() + " " + headers.getAuthorizationParameter());
+            }
+        }
+
+        builder.method(request.getMethod(), getBody(request));
+
+        OkHttpClient call = client;
+        if (request.getTimeout() > 0) {
+            call = client.newBuilder().callTimeout(request.getTimeout(), TimeUnit.MILLISECONDS).build();
+        }
+
+        call.newCall(builder.build()).enqueue(new Callback() {
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull okhttp3.Response result) {
+                try (ResponseBody body = result.body()) {
+                    String content = body != null ? body.string() : null;
+                    if (result.isSuccessful()) {
+                        handler.post(() -> response.onResponse(content));
+                        return;
+                    }
+
+                    HttpException exception = new HttpException(result.message());
+                    exception.setStatusCode(result.code());
+                    handler.post(() -> response.onError(exception));
+                } catch (IOException exception) {
+                    handler.post(() -> response.onError(exception));
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException exception) {
+                handler.post(() -> response.onError(exception));
+            }
+        });
+    }
+
+    private RequestBody getBody(HttpRequest request) {
+        String method = request.getMethod().toUpperCase();
+        if (method.equals("GET") || method.equals("HEAD")) return null;
+
+        if (request.getRequestContent() != null) {
+            MediaType type = MediaType.parse(request.getRequestContentType() != null ? request.getRequestContentType() : "application/json");
+            return RequestBody.create(type, request.getRequestContent());
+        }
+
+        if (request.getPostData() != null && !request.getPostData().isEmpty()) {
+            FormBody.Builder form = new FormBody.Builder();
+            for (Map.Entry<String, String> entry : request.getPostData().entrySet()) {
+                form.add(entry.getKey(), entry.getValue());
+            }
+
+            return form.build();
+        }
+
+        // an empty form would add a content type the server never received before
+        if (method.equals("DELETE")) return null;
+        return RequestBody.create(null, new byte[0]);
+    }
+}
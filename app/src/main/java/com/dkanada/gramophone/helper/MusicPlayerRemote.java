@@ -155,6 +155,12 @@ public class MusicPlayerRemote {
         }
     }
 
+    public static void openSource(final QueueSource source, final boolean startPlaying) {
+        if (musicService != null) {
+            musicService.openSource(source, startPlaying);
+        }
+    }
+
     public static void openAndShuffleQueue(final List<Song> queue, boolean startPlaying) {
         int startPosition = 0;
         if (!queue.isEmpty()) {
@@ -229,6 +235,14 @@ public class MusicPlayerRemote {
         return -1;
     }
 
+    public static long getTimeUntilMillis(int position) {
+        if (musicService != null) {
+            return musicService.getTimeUntilMillis(position);
+        }
+
+        return -1;
+    }
+
     public static int seekTo(int millis) {
         if (musicService != null) {
             return musicService.seek(millis);
@@ -313,6 +327,12 @@ public class MusicPlayerRemote {
         return false;
     }
 
+    public static void startRadio(Song song) {
+        if (musicService != null) {
+            musicService.startRadio(song);
+        }
+    }
+
     public static boolean enqueue(Song song) {
         if (musicService != null) {
             if (getPlayingQueue().size() > 0) {
@@ -346,6 +366,16 @@ public class MusicPlayerRemote {
         return false;
     }
 
+    // used for songs that are still loading after the first page was added
+    public static boolean insertSongs(int position, @NonNull List<Song> songs) {
+        if (musicService != null) {
+            musicService.addSongs(Math.min(position, getPlayingQueue().size()), songs);
+            return true;
+        }
+
+        return false;
+    }
+
     public static boolean removeFromQueue(int position) {
         if (musicService != null && position >= 0 && position < getPlayingQueue().size()) {
             musicService.removeSong(position);
@@ -0,0 +1,413 @@
+package com.dkanada.gramophone.helper;
+
+import androidx.annotation.NonNull;
+
+import com.dkanada.gramophone.model.Song;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// list backed by an implicit treap so positional edits on large queues are logarithmic
+// every node is indexed by song id which makes indexOf and remove by song logarithmic as well
+// nodes also keep the duration of their subtree so any range of the queue can be summed in logarithmic time
+public class QueueList extends AbstractList<Song> {
+    private static final Random random = new Random();
+
+    private final Map<String, List<Node>> index = new HashMap<>();
+    private Node root;
+
+    public QueueList() {
+    }
+
+    public QueueList(@NonNull Collection<? extends Song> songs) {
+        root = build(songs);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public Song get(int position) {
+        return node(position).song;
+    }
+
+    @Override
+    public Song set(int position, Song song) {
+        Node node = node(position);
+        Song previous = node.song;
+
+        unindex(node);
+        node.song = song;
+        index(node);
+
+        for (Node parent = node; parent != null; parent = parent.parent) {
+            update(parent);
+        }
+
+        return previous;
+    }
+
+    @Override
+    public void add(int position, Song song) {
+        if (position < 0 || position > size()) throw new IndexOutOfBoundsException("position " + position + " size " + size());
+
+        Node node = new Node(song);
+        index(node);
+
+        Node[] parts = split(root, position);
+        root = merge(merge(parts[0], node), parts[1]);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(int position, @NonNull Collection<? extends Song> songs) {
+        if (position < 0 || position > size()) throw new IndexOutOfBoundsException("position " + position + " size " + size());
+        if (songs.isEmpty()) return false;
+
+        Node[] parts = split(root, position);
+        root = merge(merge(parts[0], build(songs)), parts[1]);
+        modCount++;
+
+        return true;
+    }
+
+    @Override
+    public boolean addAll(@NonNull Collection<? extends Song> songs) {
+        return addAll(size(), songs);
+    }
+
+    @Override
+    public Song remove(int position) {
+        if (position < 0 || position >= size()) throw new IndexOutOfBoundsException("position " + position + " size " + size());
+
+        Node[] left = split(root, position);
+        Node[] right = split(left[1], 1);
+        root = merge(left[0], right[1]);
+        modCount++;
+
+        unindex(right[0]);
+        return right[0].song;
+    }
+
+    @Override
+    public boolean remove(Object song) {
+        int position = indexOf(song);
+        if (position == -1) return false;
+
+        remove(position);
+        return true;
+    }
+
+    public void move(int from, int to) {
+        add(to, remove(from));
+    }
+
+    // total duration of the songs from start inclusive to end exclusive
+    public long getDuration(int start, int end) {
+        start = Math.max(0, start);
+        end = Math.min(size(), end);
+        if (start >= end) return 0;
+
+        return getDuration(end) - getDuration(start);
+    }
+
+    // total duration of the first count songs
+    public long getDuration(int count) {
+        long result = 0;
+
+        Node node = root;
+        while (node != null && count > 0) {
+            int left = size(node.left);
+            if (count <= left) {
+                node = node.left;
+            } else {
+                result += duration(node.left) + node.song.duration;
+                count -= left + 1;
+                node = node.right;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        index.clear();
+        modCount++;
+    }
+
+    // the first position of a song with the same id to match the array list semantics
+    @Override
+    public int indexOf(Object song) {
+        List<Node> nodes = nodes(song);
+        if (nodes == null) return -1;
+
+        if (nodes.size() == 1) return position(nodes.get(0));
+
+        // duplicates are indexed in insertion order so walk the queue and stop at the first one
+        int position = 0;
+        for (Node node = first(root); node != null; node = next(node)) {
+            if (node.song.id.equals(((Song) song).id)) return position;
+            position++;
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object song) {
+        List<Node> nodes = nodes(song);
+        if (nodes == null) return -1;
+
+        int result = -1;
+        for (Node node : nodes) {
+            result = Math.max(result, position(node));
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean contains(Object song) {
+        return nodes(song) != null;
+    }
+
+    // in order walk over the parent links instead of a lookup for every position
+    @NonNull
+    @Override
+    public Iterator<Song> iterator() {
+        return new Iterator<Song>() {
+            private Node next = first(root);
+            private Node last;
+            private int position;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Song next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (next == null) throw new NoSuchElementException();
+
+                last = next;
+                next = QueueList.next(next);
+                position++;
+
+                return last.song;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) throw new IllegalStateException();
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+
+                // the remaining nodes survive the split and merge so the next node is still valid
+                QueueList.this.remove(--position);
+                expectedModCount = modCount;
+                last = null;
+            }
+        };
+    }
+
+    // linear walk instead of a lookup for every position when the queue is copied
+    @NonNull
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size()];
+        collect(root, result, 0);
+
+        return result;
+    }
+
+    private List<Node> nodes(Object song) {
+        if (!(song instanceof Song)) return null;
+        return index.get(((Song) song).id);
+    }
+
+    private void index(Node node) {
+        List<Node> nodes = index.get(node.song.id);
+        if (nodes == null) {
+            nodes = new ArrayList<>(1);
+            index.put(node.song.id, nodes);
+        }
+
+        nodes.add(node);
+    }
+
+    private void unindex(Node node) {
+        List<Node> nodes = index.get(node.song.id);
+        if (nodes == null) return;
+
+        nodes.remove(node);
+        if (nodes.isEmpty()) index.remove(node.song.id);
+    }
+
+    private Node node(int position) {
+        if (position < 0 || position >= size()) throw new IndexOutOfBoundsException("position " + position + " size " + size());
+
+        Node node = root;
+        while (true) {
+            int left = size(node.left);
+            if (position < left) {
+                node = node.left;
+            } else if (position == left) {
+                return node;
+            } else {
+                position -= left + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    private int position(Node node) {
+        int position = size(node.left);
+        while (node.parent != null) {
+            if (node == node.parent.right) position += size(node.parent.left) + 1;
+            node = node.parent;
+        }
+
+        return position;
+    }
+
+    // first count nodes go to the left tree and the rest to the right tree
+    private Node[] split(Node node, int count) {
+        if (node == null) return new Node[]{null, null};
+
+        Node[] parts;
+        if (size(node.left) >= count) {
+            parts = split(node.left, count);
+            node.left = parent(parts[1], node);
+            parts[1] = node;
+        } else {
+            parts = split(node.right, count - size(node.left) - 1);
+            node.right = parent(parts[0], node);
+            parts[0] = node;
+        }
+
+        update(node);
+        parent(parts[0], null);
+        parent(parts[1], null);
+
+        return parts;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) return parent(right, null);
+        if (right == null) return parent(left, null);
+
+        if (left.priority > right.priority) {
+            left.right = parent(merge(left.right, right), left);
+            update(left);
+            return parent(left, null);
+        } else {
+            right.left = parent(merge(left, right.left), right);
+            update(right);
+            return parent(right, null);
+        }
+    }
+
+    // cartesian tree over the random priorities so building a queue is linear
+    private Node build(Collection<? extends Song> songs) {
+        Node[] stack = new Node[songs.size()];
+        int top = 0;
+
+        for (Song song : songs) {
+            Node node = new Node(song);
+            index(node);
+
+            Node last = null;
+            while (top > 0 && stack[top - 1].priority < node.priority) {
+                last = stack[--top];
+            }
+
+            node.left = parent(last, node);
+            if (top > 0) stack[top - 1].right = parent(node, stack[top - 1]);
+            stack[top++] = node;
+        }
+
+        if (top == 0) return null;
+
+        resize(stack[0]);
+        return stack[0];
+    }
+
+    private static void resize(Node node) {
+        if (node == null) return;
+
+        resize(node.left);
+        resize(node.right);
+        update(node);
+    }
+
+    private static Node first(Node node) {
+        if (node == null) return null;
+
+        while (node.left != null) node = node.left;
+        return node;
+    }
+
+    // in order successor through the parent links
+    private static Node next(Node node) {
+        if (node.right != null) return first(node.right);
+
+        while (node.parent != null && node == node.parent.right) node = node.parent;
+        return node.parent;
+    }
+
+    private static int collect(Node node, Object[] result, int position) {
+        if (node == null) return position;
+
+        position = collect(node.left, result, position);
+        result[position++] = node.song;
+        return collect(node.right, result, position);
+    }
+
+    private static Node parent(Node node, Node parent) {
+        if (node != null) node.parent = parent;
+        return node;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        node.duration = node.song.duration + duration(node.left) + duration(node.right);
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static long duration(Node node) {
+        return node != null ? node.duration : 0;
+    }
+
+    private static class Node {
+        private final int priority = random.nextInt();
+
+        private Song song;
+        private int size = 1;
+        private long duration;
+
+        private Node left;
+        private Node right;
+        private Node parent;
+
+        private Node(Song song) {
+            this.song = song;
+            this.duration = song.duration;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.dkanada.gramophone.helper;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.interfaces.MediaCallback;
+import com.dkanada.gramophone.model.SortMethod;
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.QueryUtil;
+import com.google.gson.Gson;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.entities.SortOrder;
+import org.jellyfin.apiclient.model.querying.ItemFields;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// virtual queue over an item query that only fetches the songs close to the current position
+// shuffling visits the windows of the sorted results in a seeded order so only the seed has to be kept
+public class QueueSource {
+    public static final int WINDOW = 100;
+
+    private static final Gson gson = new Gson();
+
+    private final ItemQuery query;
+    private final boolean shuffle;
+    private final long seed = new Random().nextLong();
+
+    // song that was picked from the list and where it is expected in the sorted results
+    private final Song song;
+    private final int position;
+    private int offset;
+
+    // songs from the first random window that are skipped when their window comes up again
+    private final Set<String> skipped = new HashSet<>();
+
+    // song that was put in front of its window since the results no longer had it there
+    private boolean prepended;
+
+    private int total = -1;
+    private int window;
+    private boolean loading;
+
+    // windows before the one the queue started with are loaded backwards
+    private int previous;
+    private boolean loadingPrevious;
+
+    private QueueSource(ItemQuery query, boolean shuffle, int position, Song song) {
+        this.query = query;
+        this.shuffle = shuffle;
+        this.position = position;
+        this.song = song;
+
+        query.setIncludeItemTypes(new String[]{"Audio"});
+        query.setFields(new ItemFields[]{ItemFields.MediaSources});
+        QueryUtil.applyProperties(query);
+    }
+
+    public static QueueSource create(ItemQuery query) {
+        return new QueueSource(query, false, 0, null);
+    }
+
+    // the queue starts with the window that contains the song instead of the first one
+    public static QueueSource create(ItemQuery query, int position, Song song) {
+        return new QueueSource(query, false, position, song);
+    }
+
+    public static QueueSource shuffle(ItemQuery query) {
+        return new QueueSource(query, true, 0, null);
+    }
+
+    public boolean isShuffled() {
+        return shuffle;
+    }
+
+    public boolean hasMore() {
+        return total == -1 || window * WINDOW < total;
+    }
+
+    public boolean hasPrevious() {
+        return previous > 0;
+    }
+
+    // position in the first window that should be played
+    public int getOffset() {
+        return offset;
+    }
+
+    // the first window also contains the total so starting is a single request
+    public void start(MediaCallback<Song> callback) {
+        if (shuffle) {
+            query.setSortBy(new String[]{SortMethod.RANDOM.getApi()});
+        }
+
+        int first = shuffle ? 0 : position / WINDOW;
+        loading = true;
+        request(first * WINDOW, (songs, total) -> {
+            loading = false;
+            this.total = total;
+
+            if (shuffle) {
+                for (Song song : songs) skipped.add(song.id);
+            } else {
+                window = first + 1;
+                previous = first;
+            }
+
+            callback.onLoadMedia(song != null ? find(songs, position - first * WINDOW) : songs);
+        }, exception -> {
+            loading = false;
+            callback.onError(exception);
+        });
+    }
+
+    // the windows before the starting one so earlier songs can be reached with previous
+    public void loadPrevious(MediaCallback<Song> callback) {
+        if (loadingPrevious || shuffle || previous == 0) return;
+
+        loadingPrevious = true;
+        request((previous - 1) * WINDOW, (songs, total) -> {
+            loadingPrevious = false;
+            previous--;
+
+            if (!prepended) {
+                callback.onLoadMedia(songs);
+                return;
+            }
+
+            List<Song> result = new ArrayList<>(songs.size());
+            for (Song song : songs) {
+                if (!song.id.equals(this.song.id)) result.add(song);
+            }
+
+            callback.onLoadMedia(result);
+        }, exception -> {
+            loadingPrevious = false;
+            callback.onError(exception);
+        });
+    }
+
+    public void load(MediaCallback<Song> callback) {
+        if (loading || total == -1 || !hasMore()) return;
+
+        int blocks = (total + WINDOW - 1) / WINDOW;
+        int block = shuffle ? permute(window, blocks, seed) : window;
+
+        if (shuffle) {
+            // adjacent titles are rarely from the same album which keeps each window mixed
+            query.setSortBy(new String[]{SortMethod.NAME.getApi(), "Id"});
+            query.setSortOrder(SortOrder.Ascending);
+        }
+
+        loading = true;
+        request(block * WINDOW, (songs, total) -> {
+            loading = false;
+            window++;
+            if (!shuffle) {
+                callback.onLoadMedia(songs);
+                return;
+            }
+
+            List<Song> result = new ArrayList<>(songs.size());
+            for (Song song : songs) {
+                if (!skipped.contains(song.id)) result.add(song);
+            }
+
+            Collections.shuffle(result, new Random(seed + block));
+            callback.onLoadMedia(result);
+        }, exception -> {
+            loading = false;
+            callback.onError(exception);
+        });
+    }
+
+    // failures are reported to the caller and the same window is requested again on the next load
+    // the query is copied since the windows before and after the current one can be in flight together
+    private void request(int index, WindowCallback callback, Consumer<Exception> failure) {
+        ItemQuery page = gson.fromJson(gson.toJson(query), ItemQuery.class);
+        page.setStartIndex(index);
+        page.setLimit(WINDOW);
+
+        App.getApiClient().GetItemsAsync(page, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult result) {
+                List<Song> songs = new ArrayList<>();
+                for (BaseItemDto itemDto : result.getItems()) {
+                    songs.add(new Song(itemDto));
+                }
+
+                callback.onLoadWindow(songs, result.getTotalRecordCount());
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                failure.accept(exception);
+            }
+        });
+    }
+
+    // the list the song was picked from can be older than the results so it is looked up by id
+    private List<Song> find(List<Song> songs, int expected) {
+        if (expected < songs.size() && songs.get(expected).id.equals(song.id)) {
+            offset = expected;
+            return songs;
+        }
+
+        for (int i = 0; i < songs.size(); i++) {
+            if (!songs.get(i).id.equals(song.id)) continue;
+
+            offset = i;
+            return songs;
+        }
+
+        List<Song> result = new ArrayList<>(songs.size() + 1);
+        result.add(song);
+        result.addAll(songs);
+
+        offset = 0;
+        prepended = true;
+        return result;
+    }
+
+    // feistel network over the next power of four with cycle walking for values past the count
+    private static int permute(int index, int count, long seed) {
+        int bits = 2;
+        while ((1L << bits) < count) bits += 2;
+
+        int half = bits / 2;
+        int mask = (1 << half) - 1;
+
+        int value = index;
+        do {
+            int left = value >>> half;
+            int right = value & mask;
+
+            for (int round = 0; round < 4; round++) {
+                int next = left ^ (mix(right, seed, round) & mask);
+                left = right;
+                right = next;
+            }
+
+            value = (left << half) | right;
+        } while (value >= count);
+
+        return value;
+    }
+
+    private static int mix(int value, long seed, int round) {
+        long hash = value * 0x9E3779B97F4A7C15L + seed + round * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 31)) * 0x94D049BB133111EBL;
+        return (int) (hash ^ (hash >>> 29));
+    }
+
+    private interface WindowCallback {
+        void onLoadWindow(List<Song> songs, int total);
+    }
+}
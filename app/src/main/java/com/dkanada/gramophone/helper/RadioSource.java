@@ -0,0 +1,95 @@
+package com.dkanada.gramophone.helper;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.dkanada.gramophone.interfaces.MediaCallback;
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.ItemsDecoder;
+import com.dkanada.gramophone.util.ItemsUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// endless queue that keeps appending instant mixes seeded from the songs already queued
+public class RadioSource {
+    public static final int WINDOW = 50;
+
+    // recently queued songs are not added again until this many newer songs were queued
+    private static final int HISTORY = 1000;
+
+    private static final int ATTEMPTS = 4;
+    private static final long BACKOFF = 5000;
+
+    private static final Executor executor = Executors.newSingleThreadExecutor();
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    // insertion order is kept so the oldest entries are dropped first
+    private final Set<String> history = new LinkedHashSet<>();
+    private boolean loading;
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public void remember(Collection<Song> songs) {
+        for (Song song : songs) {
+            history.remove(song.id);
+            history.add(song.id);
+        }
+
+        Iterator<String> iterator = history.iterator();
+        while (history.size() > HISTORY && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public void load(Song seed, MediaCallback<Song> callback) {
+        if (loading) return;
+
+        loading = true;
+        request(seed, callback, 0);
+    }
+
+    private void request(Song seed, MediaCallback<Song> callback, int attempt) {
+        Set<String> recent = new LinkedHashSet<>(history);
+        executor.execute(() -> {
+            List<Song> songs = new ArrayList<>();
+            try {
+                ItemsDecoder.Result<Song> result = ItemsUtil.getInstantMix(seed.id, WINDOW, Song::new, ItemsDecoder::readSong);
+                for (Song song : result.items) {
+                    if (recent.add(song.id)) songs.add(song);
+                }
+            } catch (IOException | RuntimeException exception) {
+                exception.printStackTrace();
+                handler.post(() -> retry(seed, callback, attempt, exception));
+                return;
+            }
+
+            handler.post(() -> {
+                loading = false;
+                remember(songs);
+                callback.onLoadMedia(songs);
+            });
+        });
+    }
+
+    // a failed mix is requested again with a growing delay so the radio survives short outages
+    private void retry(Song seed, MediaCallback<Song> callback, int attempt, Exception exception) {
+        if (attempt + 1 >= ATTEMPTS) {
+            loading = false;
+            callback.onError(exception);
+            return;
+        }
+
+        handler.postDelayed(() -> request(seed, callback, attempt + 1), BACKOFF << attempt);
+    }
+}
@@ -0,0 +1,167 @@
+package com.dkanada.gramophone.helper;
+
+import androidx.annotation.NonNull;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.interfaces.PageCallback;
+import com.dkanada.gramophone.interfaces.StreamCallback;
+import com.dkanada.gramophone.model.Album;
+import com.dkanada.gramophone.model.Artist;
+import com.dkanada.gramophone.model.Playlist;
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.model.SortMethod;
+import com.dkanada.gramophone.util.PreferenceUtil;
+import com.dkanada.gramophone.util.QueryUtil;
+
+import org.jellyfin.apiclient.model.entities.SortOrder;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// resolves a multi-selection into songs one page at a time
+// a few queries are loaded at the same time but pages are delivered in selection order
+public class SelectionResolver {
+    private static final int CONCURRENCY = 3;
+
+    // artists are combined into a single query with a limit that keeps the url short
+    private static final int ARTIST_BATCH = 50;
+
+    private final List<ItemQuery> queries;
+    private final StreamCallback<Song> callback;
+    private final int page;
+
+    // pages that arrived before the queries in front of them were delivered
+    private final List<List<Song>> pending = new ArrayList<>();
+    private final boolean[] complete;
+
+    private int started;
+    private int delivered;
+    private boolean failed;
+
+    // the same song can belong to more than one selected artist
+    private final Set<String> seen = new HashSet<>();
+
+    private SelectionResolver(List<ItemQuery> queries, StreamCallback<Song> callback) {
+        this.queries = queries;
+        this.callback = callback;
+        this.page = PreferenceUtil.getInstance(App.getInstance()).getPageSize();
+        this.complete = new boolean[queries.size()];
+
+        for (int i = 0; i < queries.size(); i++) {
+            pending.add(new ArrayList<>());
+        }
+    }
+
+    public static void resolveAlbums(@NonNull List<Album> albums, StreamCallback<Song> callback) {
+        List<ItemQuery> queries = new ArrayList<>();
+        for (Album album : albums) {
+            ItemQuery query = new ItemQuery();
+            query.setParentId(album.id);
+            query.setSortBy(new String[]{"ParentIndexNumber", "IndexNumber", SortMethod.NAME.getApi(), "Id"});
+            query.setSortOrder(SortOrder.Ascending);
+            queries.add(query);
+        }
+
+        new SelectionResolver(queries, callback).start();
+    }
+
+    public static void resolveArtists(@NonNull List<Artist> artists, StreamCallback<Song> callback) {
+        List<ItemQuery> queries = new ArrayList<>();
+        for (int start = 0; start < artists.size(); start += ARTIST_BATCH) {
+            List<Artist> batch = artists.subList(start, Math.min(artists.size(), start + ARTIST_BATCH));
+            String[] ids = new String[batch.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = batch.get(i).id;
+
+            ItemQuery query = new ItemQuery();
+            query.setArtistIds(ids);
+            query.setSortBy(new String[]{SortMethod.NAME.getApi(), "Id"});
+            query.setSortOrder(SortOrder.Ascending);
+            queries.add(query);
+        }
+
+        new SelectionResolver(queries, callback).start();
+    }
+
+    // playlists are left unsorted since the server returns them in playlist order
+    public static void resolvePlaylists(@NonNull List<Playlist> playlists, StreamCallback<Song> callback) {
+        List<ItemQuery> queries = new ArrayList<>();
+        for (Playlist playlist : playlists) {
+            ItemQuery query = new ItemQuery();
+            query.setParentId(playlist.id);
+            queries.add(query);
+        }
+
+        new SelectionResolver(queries, callback).start();
+    }
+
+    private void start() {
+        if (queries.isEmpty()) {
+            callback.onLoadMedia(new ArrayList<>(), true);
+            return;
+        }
+
+        while (started < Math.min(queries.size(), CONCURRENCY)) {
+            load(started++, 0);
+        }
+    }
+
+    // pages of a single query are still requested one after another
+    private void load(int position, int index) {
+        ItemQuery query = queries.get(position);
+        query.setStartIndex(index);
+        query.setLimit(page);
+
+        QueryUtil.getSongs(query, new PageCallback<Song>() {
+            @Override
+            public void onLoadPage(List<Song> media, int total) {
+                if (failed) return;
+
+                pending.get(position).addAll(media);
+
+                int next = index + media.size();
+                if (!media.isEmpty() && next < total) {
+                    load(position, next);
+                } else {
+                    complete[position] = true;
+                }
+
+                deliver();
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                if (failed) return;
+
+                failed = true;
+                callback.onError(exception);
+            }
+        });
+    }
+
+    private void deliver() {
+        while (delivered < queries.size()) {
+            List<Song> media = pending.get(delivered);
+            boolean finished = complete[delivered];
+
+            List<Song> songs = new ArrayList<>();
+            for (Song song : media) {
+                if (seen.add(song.id)) songs.add(song);
+            }
+
+            media.clear();
+            if (!finished) {
+                if (!songs.isEmpty()) callback.onLoadMedia(songs, false);
+                return;
+            }
+
+            delivered++;
+            boolean done = delivered == queries.size();
+            if (!songs.isEmpty() || done) callback.onLoadMedia(songs, done);
+
+            if (started < queries.size()) load(started++, 0);
+        }
+    }
+}
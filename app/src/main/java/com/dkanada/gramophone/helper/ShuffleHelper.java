@@ -4,20 +4,58 @@ import androidx.annotation.NonNull;
 
 import com.dkanada.gramophone.model.Song;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 public class ShuffleHelper {
-    public static void makeShuffleList(@NonNull List<Song> listToShuffle, final int current) {
-        if (listToShuffle.isEmpty()) return;
+    private static final Random random = new Random();
 
-        if (current >= 0) {
-            Song song = listToShuffle.remove(current);
+    // returns the new order as indices into the list before it was shuffled
+    public static int[] makeShuffleList(@NonNull List<Song> listToShuffle, final int current) {
+        int[] order = makeShuffleOrder(listToShuffle.size(), current);
+        applyOrder(listToShuffle, order);
 
-            Collections.shuffle(listToShuffle);
-            listToShuffle.add(0, song);
-        } else {
-            Collections.shuffle(listToShuffle);
+        return order;
+    }
+
+    // the current song is moved to the front and everything else is shuffled
+    public static int[] makeShuffleOrder(int size, final int current) {
+        int[] order = new int[size];
+        if (size == 0) return order;
+
+        int start = 0;
+        if (current >= 0 && current < size) {
+            order[0] = current;
+            start = 1;
+        }
+
+        for (int i = 0, j = start; i < size; i++) {
+            if (start == 1 && i == current) continue;
+            order[j++] = i;
+        }
+
+        for (int i = size - 1; i > start; i--) {
+            int j = start + random.nextInt(i - start + 1);
+
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
         }
+
+        return order;
+    }
+
+    // the list is rebuilt in one pass since setting every position is slower on a queue list
+    public static void applyOrder(@NonNull List<Song> list, int[] order) {
+        List<Song> copy = new ArrayList<>(list);
+        List<Song> result = new ArrayList<>(copy.size());
+
+        for (int i = 0; i < copy.size(); i++) {
+            result.add(i < order.length ? copy.get(order[i]) : copy.get(i));
+        }
+
+        list.clear();
+        list.addAll(result);
     }
 }
@@ -0,0 +1,90 @@
+package com.dkanada.gramophone.helper;
+
+import android.util.SparseArray;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+// list with a known size where only the pages around the current position are kept in memory
+// positions that have not been loaded yet return null and are drawn as placeholders
+public class SparseList<T> extends AbstractList<T> {
+    private final SparseArray<List<T>> pages = new SparseArray<>();
+    private final int pageSize;
+    private final int maxPages;
+
+    private int size;
+    private int position;
+
+    public SparseList(int pageSize, int maxPages) {
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + " size " + size);
+
+        List<T> page = pages.get(index / pageSize);
+        if (page == null || index % pageSize >= page.size()) return null;
+
+        return page.get(index % pageSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        pages.clear();
+        size = 0;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isLoaded(int index) {
+        return pages.get(index / pageSize) != null;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    // pages furthest from this position are evicted first
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public void setPage(int index, List<T> items) {
+        pages.put(index / pageSize, new ArrayList<>(items));
+        trim();
+    }
+
+    // loaded items in order without touching the placeholders
+    public List<T> getLoaded() {
+        List<T> loaded = new ArrayList<>();
+        for (int i = 0; i < pages.size(); i++) {
+            loaded.addAll(pages.valueAt(i));
+        }
+
+        return loaded;
+    }
+
+    private void trim() {
+        int current = position / pageSize;
+        while (pages.size() > maxPages) {
+            int furthest = 0;
+            for (int i = 1; i < pages.size(); i++) {
+                if (Math.abs(pages.keyAt(i) - current) > Math.abs(pages.keyAt(furthest) - current)) {
+                    furthest = i;
+                }
+            }
+
+            pages.removeAt(furthest);
+        }
+    }
+}
@@ -37,6 +37,9 @@ public class SongMenuHelper {
             case R.id.action_add_to_queue:
                 MusicPlayerRemote.enqueue(song);
                 return true;
+            case R.id.action_start_radio:
+                MusicPlayerRemote.startRadio(song);
+                return true;
             case R.id.action_details:
                 SongDetailDialog.create(song).show(activity.getSupportFragmentManager(), SongDetailDialog.TAG);
                 return true;
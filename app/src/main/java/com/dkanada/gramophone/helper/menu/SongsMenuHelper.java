@@ -1,14 +1,18 @@
 package com.dkanada.gramophone.helper.menu;
 
+import android.widget.Toast;
+
 import androidx.annotation.NonNull;
 import androidx.fragment.app.FragmentActivity;
 
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.dialogs.AddToPlaylistDialog;
 import com.dkanada.gramophone.helper.MusicPlayerRemote;
+import com.dkanada.gramophone.interfaces.StreamCallback;
 import com.dkanada.gramophone.model.Song;
 import com.dkanada.gramophone.util.NavigationUtil;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class SongsMenuHelper {
@@ -33,4 +37,43 @@ public class SongsMenuHelper {
 
         return false;
     }
+
+    // applies the action to songs as the pages arrive instead of waiting for the whole selection
+    public static StreamCallback<Song> handleMenuStream(@NonNull FragmentActivity activity, int menuItemId) {
+        return new StreamCallback<Song>() {
+            private final List<Song> loaded = new ArrayList<>();
+            private int position;
+
+            @Override
+            public void onLoadMedia(List<Song> media, boolean done) {
+                if (menuItemId == R.id.action_add_to_playlist) {
+                    loaded.addAll(media);
+                    if (done && !loaded.isEmpty()) handleMenuClick(activity, loaded, menuItemId);
+                    return;
+                }
+
+                if (media.isEmpty()) return;
+                if (loaded.isEmpty()) {
+                    int start = MusicPlayerRemote.getPlayingQueue().isEmpty() ? 0 : MusicPlayerRemote.getPosition() + 1;
+                    handleMenuClick(activity, media, menuItemId);
+                    position = start + media.size();
+                } else if (menuItemId == R.id.action_play_next) {
+                    MusicPlayerRemote.insertSongs(position, media);
+                    position += media.size();
+                } else if (menuItemId == R.id.action_play || menuItemId == R.id.action_add_to_queue) {
+                    MusicPlayerRemote.insertSongs(MusicPlayerRemote.getPlayingQueue().size(), media);
+                } else {
+                    handleMenuClick(activity, media, menuItemId);
+                }
+
+                loaded.addAll(media);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                exception.printStackTrace();
+                Toast.makeText(activity, R.string.error_unexpected, Toast.LENGTH_SHORT).show();
+            }
+        };
+    }
 }
@@ -4,4 +4,8 @@ import java.util.List;
 
 public interface MediaCallback<T> {
     void onLoadMedia(List<T> media);
+
+    default void onError(Exception exception) {
+        exception.printStackTrace();
+    }
 }
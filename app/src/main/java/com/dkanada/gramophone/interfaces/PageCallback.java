@@ -0,0 +1,11 @@
+package com.dkanada.gramophone.interfaces;
+
+import java.util.List;
+
+public interface PageCallback<T> {
+    void onLoadPage(List<T> media, int total);
+
+    default void onError(Exception exception) {
+        exception.printStackTrace();
+    }
+}
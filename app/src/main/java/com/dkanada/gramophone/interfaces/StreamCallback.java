@@ -0,0 +1,11 @@
+package com.dkanada.gramophone.interfaces;
+
+import java.util.List;
+
+public interface StreamCallback<T> {
+    void onLoadMedia(List<T> media, boolean done);
+
+    default void onError(Exception exception) {
+        exception.printStackTrace();
+    }
+}
@@ -4,6 +4,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.room.Ignore;
 
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.entities.ImageType;
@@ -12,8 +13,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Album implements Parcelable {
+    @Ignore
     public List<Song> songs;
 
+    @NonNull
     public String id;
     public String title;
     public int year;
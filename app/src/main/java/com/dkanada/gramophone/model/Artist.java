@@ -4,6 +4,7 @@ import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.room.Ignore;
 
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.dto.GenreDto;
@@ -13,10 +14,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Artist implements Parcelable {
+    @Ignore
     public List<Genre> genres;
+    @Ignore
     public List<Album> albums;
+    @Ignore
     public List<Song> songs;
 
+    @NonNull
     public String id;
     public String name;
 
@@ -54,6 +59,7 @@ public class Artist implements Parcelable {
     }
 
     public Artist() {
+        this.genres = new ArrayList<>();
         this.albums = new ArrayList<>();
         this.songs = new ArrayList<>();
     }
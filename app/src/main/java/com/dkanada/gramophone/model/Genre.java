@@ -9,14 +9,21 @@ import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.dto.GenreDto;
 import org.jellyfin.apiclient.model.entities.ImageType;
 
+import java.util.UUID;
+
 public class Genre implements Parcelable {
-    public final String id;
-    public final String name;
-    public final int songCount;
+    @NonNull
+    public String id;
+    public String name;
+    public int songCount;
 
     public String primary;
     public String blurHash;
 
+    public Genre() {
+        this.id = UUID.randomUUID().toString();
+    }
+
     public Genre(GenreDto genreDto) {
         this.id = genreDto.getId();
         this.name = genreDto.getName();
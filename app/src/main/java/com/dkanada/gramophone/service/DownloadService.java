@@ -1,57 +1,157 @@
 package com.dkanada.gramophone.service;
 
+import android.app.AlarmManager;
+import android.app.PendingIntent;
 import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import com.dkanada.gramophone.App;
-import com.dkanada.gramophone.BuildConfig;
 import com.dkanada.gramophone.database.Cache;
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.database.DownloadJob;
+import com.dkanada.gramophone.database.DownloadRequest;
 import com.dkanada.gramophone.model.Song;
 import com.dkanada.gramophone.service.notifications.DownloadNotification;
+import com.dkanada.gramophone.util.ItemsDecoder;
+import com.dkanada.gramophone.util.ItemsUtil;
+import com.dkanada.gramophone.util.MediaCache;
 import com.dkanada.gramophone.util.MusicUtil;
 import com.dkanada.gramophone.util.PreferenceUtil;
 
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.URL;
-import java.net.URLConnection;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.Executor;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
+import okhttp3.Request;
+import okhttp3.Response;
 
 @SuppressWarnings("ResultOfMethodCallIgnored")
 public class DownloadService extends Service {
-    public static final String PACKAGE_NAME = BuildConfig.APPLICATION_ID;
-    public static final String EXTRA_SONGS = PACKAGE_NAME + ".extra.songs";
+    public static final String TAG = DownloadService.class.getSimpleName();
+
+    private static final long TRANSFER_SIZE = 1048576;
+
+    // concurrency starts low and follows the measured throughput between these bounds
+    private static final int MIN_CONCURRENCY = 1;
+    private static final int MAX_CONCURRENCY = 6;
+    private static final long SAMPLE_TIME = 5000;
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BACKOFF = 30 * 1000;
+    private static final long MAX_BACKOFF = 60 * 60 * 1000;
+
+    // files are only split when they are large and a single connection would take a while
+    private static final long CHUNK_THRESHOLD = 16 * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_CHUNKS = 4;
+    private static final long FAST_SECONDS = 5;
+
+    // songs of a stored query that are turned into jobs at once
+    private static final int RESOLVE_BATCH = 200;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduleRunnable = this::schedule;
+    private final Runnable sampleRunnable = this::sample;
+
+    // only touched on the main thread
+    private final Set<String> active = new HashSet<>();
+    private boolean scheduling;
+    private boolean rescheduled;
+    private boolean resolving;
+    private boolean resolveAgain;
+    private volatile boolean destroyed;
+    private boolean foreground;
+    private boolean sampling;
+
+    // there are no pending jobs while the service is not running so callers can skip their writes
+    private static volatile boolean running;
+
+    // read by the download threads when they reserve connections for chunks
+    private volatile int concurrency = 2;
+    private int direction = 1;
+    private long lastRate;
+    private long sampleStart;
+
+    private final AtomicLong transferred = new AtomicLong();
+
+    // open connections of running jobs and their extra chunks which together stay within the concurrency
+    private final AtomicInteger connections = new AtomicInteger();
 
-    private Executor executor;
+    // measured bytes per second of a single connection which is read by the download threads
+    private volatile long connectionRate;
+
+    private ExecutorService executor;
     private DownloadNotification notification;
 
     @Override
     public void onCreate() {
         super.onCreate();
 
-        executor = Executors.newFixedThreadPool(4);
+        running = true;
+        executor = Executors.newCachedThreadPool();
         notification = new DownloadNotification(this);
+        sampleStart = SystemClock.elapsedRealtime();
+
+        // the service can be started from the background so it has to be in the foreground right away
+        setForeground(true);
+        getAlarmManager().cancel(getRetryIntent());
+
+        DatabaseExecutor.write(database -> database.downloadJobDao().resetRunning(), this::schedule);
     }
 
+    // callers store their songs or queries before starting the service so the intent carries nothing
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        if (intent == null) {
-            return super.onStartCommand(null, flags, startId);
-        }
+        setForeground(true);
+        resolve();
+        schedule();
 
-        List<Song> songs = intent.getParcelableArrayListExtra(EXTRA_SONGS);
-        for (Song song : songs) {
-            download(song);
-            notification.start(song);
-        }
+        // jobs are persisted so the service only has to be started again to resume them
+        return START_STICKY;
+    }
 
-        return super.onStartCommand(intent, flags, startId);
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        destroyed = true;
+        running = false;
+        handler.removeCallbacksAndMessages(null);
+        executor.shutdownNow();
     }
 
     @Override
@@ -59,55 +159,542 @@ public class DownloadService extends Service {
         return null;
     }
 
-    @SuppressWarnings("ConstantConditions")
-    public void download(Song song) {
+    public static boolean isRunning() {
+        return running;
+    }
+
+    private void setForeground(boolean value) {
+        if (foreground == value) return;
+
+        foreground = value;
+        if (value) {
+            startForeground(DownloadNotification.NOTIFICATION_ID, notification.build());
+        } else {
+            stopForeground(true);
+        }
+    }
+
+    // fills the free slots with the runnable jobs of the highest priority
+    private void schedule() {
+        handler.removeCallbacks(scheduleRunnable);
+
+        if (destroyed) return;
+        if (scheduling) {
+            rescheduled = true;
+            return;
+        }
+
+        int free = concurrency - connections.get();
+        if (free <= 0) return;
+
+        // running jobs are still in the results so they are skipped below
+        scheduling = true;
+        int limit = free + active.size();
+        DatabaseExecutor.read(database -> database.downloadJobDao().getRunnableJobs(System.currentTimeMillis(), limit), jobs -> {
+            scheduling = false;
+            if (destroyed) return;
+
+            if (rescheduled) {
+                rescheduled = false;
+                schedule();
+                return;
+            }
+
+            int started = 0;
+            for (DownloadJob job : jobs) {
+                if (connections.get() >= concurrency) break;
+                if (!active.add(job.id)) continue;
+
+                connections.incrementAndGet();
+                started++;
+                start(job);
+            }
+
+            if (started == 0 && active.isEmpty()) idle();
+        });
+    }
+
+    // waits for the next backoff to end or stops when every job is done
+    private void idle() {
+        DatabaseExecutor.read(database -> database.downloadJobDao().getNextRetry(), retryAt -> {
+            // requests that are still resolved will schedule their jobs
+            if (destroyed || !active.isEmpty() || resolving) return;
+
+            // a background service would be killed long before the backoff ends so an alarm starts it again
+            if (retryAt != null) {
+                long time = Math.max(System.currentTimeMillis() + 1000, retryAt);
+                getAlarmManager().set(AlarmManager.RTC_WAKEUP, time, getRetryIntent());
+            }
+
+            setForeground(false);
+            stopSelf();
+        });
+    }
+
+    private AlarmManager getAlarmManager() {
+        return (AlarmManager) getSystemService(Context.ALARM_SERVICE);
+    }
+
+    private PendingIntent getRetryIntent() {
+        Intent intent = new Intent(this, DownloadService.class);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return PendingIntent.getForegroundService(this, 0, intent, 0);
+        }
+
+        return PendingIntent.getService(this, 0, intent, 0);
+    }
+
+    // turns stored queries into jobs one page at a time so large requests start downloading right away
+    private void resolve() {
+        if (destroyed) return;
+        if (resolving) {
+            resolveAgain = true;
+            return;
+        }
+
+        resolving = true;
         executor.execute(() -> {
             try {
-                URL url = new URL(MusicUtil.getDownloadUri(song));
-                URLConnection connection = url.openConnection();
+                for (DownloadRequest request : DatabaseExecutor.read(database -> database.downloadJobDao().getRequests()).get()) {
+                    resolve(request);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+
+            handler.post(() -> {
+                resolving = false;
+                if (resolveAgain) {
+                    resolveAgain = false;
+                    resolve();
+                }
 
-                String cache = PreferenceUtil.getInstance(App.getInstance()).getLocationCache();
-                File download = new File(cache, "download/" + song.id);
-                File audio = new File(MusicUtil.getFileUri(song));
+                schedule();
+            });
+        });
+    }
+
+    private void resolve(DownloadRequest request) throws Exception {
+        while (!destroyed) {
+            ItemQuery query = request.getQuery();
+            query.setStartIndex(request.position);
+            query.setLimit(RESOLVE_BATCH);
 
-                download.getParentFile().mkdirs();
-                download.createNewFile();
-                audio.getParentFile().mkdirs();
-                audio.createNewFile();
+            ItemsDecoder.Result<DownloadJob> result = ItemsUtil.getItems(query, DownloadJob::new, ItemsDecoder::readSong);
+            long added = System.currentTimeMillis();
+            for (DownloadJob job : result.items) {
+                job.priority = request.priority;
+                job.added = added;
+            }
+
+            request.position += result.items.size();
+            boolean done = result.items.isEmpty() || request.position >= result.total;
 
-                InputStream input = connection.getInputStream();
-                OutputStream output = new FileOutputStream(download);
+            DatabaseExecutor.getWriteExecutor().submit(() -> App.getDatabase().downloadJobDao().resolve(request, result.items, done)).get();
+            handler.post(this::schedule);
 
-                connection.connect();
+            if (done) return;
+        }
+    }
 
-                byte[] data = new byte[1048576];
-                int count;
+    private void start(DownloadJob job) {
+        setForeground(true);
+        startSampling();
+        notification.start(job);
+        DatabaseExecutor.write(database -> database.downloadJobDao().setState(job.id, DownloadJob.STATE_RUNNING));
 
-                notification.update(0, connection.getContentLength());
-                while ((count = input.read(data)) != -1) {
-                    output.write(data, 0, count);
-                    notification.update(count, 0);
+        executor.execute(() -> {
+            boolean success = download(job);
+            DatabaseExecutor.write(database -> {
+                if (success) {
+                    database.downloadJobDao().deleteJob(job.id);
+                } else {
+                    database.downloadJobDao().fail(job, MAX_ATTEMPTS, BACKOFF, MAX_BACKOFF);
                 }
+            }, () -> {
+                if (destroyed) return;
+
+                active.remove(job.id);
+                connections.decrementAndGet();
+                notification.stop(job);
 
-                input.close();
-                output.close();
+                schedule();
+            });
+        });
+    }
 
-                input = new FileInputStream(download);
-                output = new FileOutputStream(audio);
+    // throughput is sampled on a timer so long downloads still move the concurrency
+    private void startSampling() {
+        if (sampling) return;
 
-                while ((count = input.read(data)) != -1) {
-                    output.write(data, 0, count);
-                }
+        sampling = true;
+        transferred.set(0);
+        sampleStart = SystemClock.elapsedRealtime();
+        handler.postDelayed(sampleRunnable, SAMPLE_TIME);
+    }
+
+    private void sample() {
+        if (destroyed) return;
+
+        adapt();
+        if (active.isEmpty()) {
+            sampling = false;
+            return;
+        }
+
+        handler.postDelayed(sampleRunnable, SAMPLE_TIME);
+        schedule();
+    }
+
+    // hill climbing on the total throughput which reverses direction once a step made it worse
+    private void adapt() {
+        long now = SystemClock.elapsedRealtime();
+        long elapsed = now - sampleStart;
+        if (elapsed < SAMPLE_TIME / 2) return;
+
+        long rate = transferred.getAndSet(0) * 1000 / elapsed;
+        int open = connections.get();
+        sampleStart = now;
+
+        connectionRate = rate / Math.max(1, open);
+
+        // the limit is not what holds the throughput back when fewer connections are open
+        if (open < concurrency) {
+            lastRate = 0;
+            return;
+        }
+
+        if (rate < lastRate * 9 / 10) direction = -direction;
 
-                input.close();
-                output.close();
+        concurrency = Math.max(MIN_CONCURRENCY, Math.min(MAX_CONCURRENCY, concurrency + direction));
+        lastRate = rate;
+    }
+
+    private boolean download(Song song) {
+        // songs finished before the job was scheduled again
+        if (MediaCache.isDownloaded(song)) return true;
+
+        // streams that were played to the end already hold every byte of the file
+        if (MediaCache.promote(song)) {
+            DatabaseExecutor.write(database -> database.cacheDao().insertCache(new Cache(song)));
+            return true;
+        }
+
+        try {
+            String cache = PreferenceUtil.getInstance(App.getInstance()).getLocationCache();
+            File validator = new File(cache, "download/" + song.id + ".validator");
+            File audio = new File(MusicUtil.getFileUri(song));
+
+            // the partial file lives next to the destination so finishing is a rename on the same volume
+            File partial = new File(audio.getPath() + ".partial");
 
+            validator.getParentFile().mkdirs();
+            audio.getParentFile().mkdirs();
+
+            // a partial file keeps the mode it was started with
+            String[] saved = partial.exists() ? readValidator(validator) : null;
+            boolean chunked = saved != null ? !saved[2].isEmpty() : getChunkCount(song.size) > 1;
+
+            boolean success = chunked ? fetchChunked(song, partial, validator, saved) : fetch(song, partial, validator);
+            if (!success || !partial.renameTo(audio)) return false;
+
+            validator.delete();
+            DatabaseExecutor.write(database -> database.cacheDao().insertCache(new Cache(song)));
+
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // continues a partial file from an earlier attempt when the server still has the same version
+    @SuppressWarnings("ConstantConditions")
+    private boolean fetch(Song song, File download, File validator) throws IOException {
+        long offset = download.length();
+        String[] saved = offset > 0 ? readValidator(validator) : null;
+
+        Request.Builder builder = new Request.Builder().url(MusicUtil.getDownloadUri(song));
+        if (saved != null) {
+            builder.header("Range", "bytes=" + offset + "-");
+            if (!saved[0].isEmpty()) builder.header("If-Range", saved[0]);
+        } else {
+            offset = 0;
+        }
+
+        Response response = App.getHttpClient().newCall(builder.build()).execute();
+
+        // the partial file already ended at the last byte or is from a different version
+        long length = saved != null ? Long.parseLong(saved[1]) : -1;
+        if (response.code() == 416) {
+            response.close();
+            if (offset == length) return true;
+
+            download.delete();
+            validator.delete();
+
+            return fetch(song, download, validator);
+        }
+
+        if (!response.isSuccessful() || response.body() == null) {
+            response.close();
+            return false;
+        }
+
+        boolean resume = response.code() == 206 && offset > 0;
+        if (resume) {
+            // without an etag the total size is the only way to tell the file did not change
+            long total = getTotalLength(response.header("Content-Range"));
+            if (total == -1 || total != length) {
+                response.close();
                 download.delete();
-                App.getDatabase().cacheDao().insertCache(new Cache(song));
-                notification.stop(song);
-            } catch (Exception e) {
-                e.printStackTrace();
+                validator.delete();
+
+                return fetch(song, download, validator);
             }
-        });
+        } else {
+            offset = 0;
+            length = response.body().contentLength();
+        }
+
+        String etag = getEtag(response);
+        writeValidator(validator, etag, length, "");
+
+        long start = SystemClock.elapsedRealtime();
+        long written = 0;
+
+        notification.setProgress(song, offset, Math.max(length, 0));
+        try (ReadableByteChannel input = Channels.newChannel(response.body().byteStream());
+             FileChannel output = new FileOutputStream(download, resume).getChannel()) {
+            long position = offset;
+            long count;
+
+            // transfers only block until the socket has data so zero means the body ended
+            while ((count = output.transferFrom(input, position, TRANSFER_SIZE)) > 0) {
+                position += count;
+                written += count;
+                transferred.addAndGet(count);
+                notification.update(song, count);
+            }
+
+            // the rename afterwards must never expose a file whose data is still in the page cache
+            output.force(true);
+        } finally {
+            response.close();
+        }
+
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - start);
+        Log.i(TAG, String.format("downloaded %s: %d bytes written once in %d ms at %d KB/s", song.id, written, elapsed, written / elapsed));
+
+        return length == -1 || download.length() == length;
+    }
+
+    private int getChunkCount(long length) {
+        if (length < CHUNK_THRESHOLD) return 1;
+
+        // a connection that already moves the whole file within a few seconds gains nothing from splitting
+        long rate = connectionRate;
+        if (rate > 0 && length / rate < FAST_SECONDS) return 1;
+
+        return (int) Math.max(1, Math.min(MAX_CHUNKS, length / MIN_CHUNK_SIZE));
+    }
+
+    // large files are split into ranges that are fetched in parallel into a preallocated file
+    private boolean fetchChunked(Song song, File download, File validator, String[] saved) throws Exception {
+        long length;
+        String etag;
+
+        // a single byte tells whether ranges are supported and gives the size and version of the file
+        Request probe = new Request.Builder().url(MusicUtil.getDownloadUri(song)).header("Range", "bytes=0-0").build();
+        try (Response response = App.getHttpClient().newCall(probe).execute()) {
+            length = getTotalLength(response.header("Content-Range"));
+            etag = getEtag(response);
+
+            if (response.code() != 206 || length <= 0) {
+                download.delete();
+                validator.delete();
+
+                return fetch(song, download, validator);
+            }
+        }
+
+        // chunks finished by an earlier attempt are kept when the file did not change
+        int chunks = getChunkCount(length);
+        Set<Integer> completed = new HashSet<>();
+        if (saved != null && Long.parseLong(saved[1]) == length && saved[0].equals(etag) && !saved[2].isEmpty()) {
+            String[] parts = saved[2].split(":", -1);
+            chunks = Integer.parseInt(parts[0]);
+
+            for (String index : parts[1].split(",")) {
+                if (!index.isEmpty()) completed.add(Integer.parseInt(index));
+            }
+        } else {
+            download.delete();
+        }
+
+        long size = (length + chunks - 1) / chunks;
+        long start = SystemClock.elapsedRealtime();
+        writeValidator(validator, etag, length, getChunks(chunks, completed));
+
+        notification.setProgress(song, 0, length);
+        try (RandomAccessFile file = new RandomAccessFile(download, "rw")) {
+            // sized up front so every range writes at its own offset without waiting for the others
+            file.setLength(length);
+            FileChannel channel = file.getChannel();
+
+            Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < chunks; i++) {
+                if (completed.contains(i)) {
+                    notification.update(song, Math.min(length, (i + 1) * size) - i * size);
+                } else {
+                    pending.add(i);
+                }
+            }
+
+            // the job already holds one connection and the other chunks only run on free ones
+            Set<Integer> finished = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            AtomicBoolean failed = new AtomicBoolean();
+            Runnable worker = () -> {
+                Integer index;
+                while (!destroyed && (index = pending.poll()) != null) {
+                    long first = index * size;
+                    long last = Math.min(length, first + size) - 1;
+
+                    try {
+                        fetchRange(song, etag, channel, first, last);
+                        finished.add(index);
+                    } catch (IOException exception) {
+                        exception.printStackTrace();
+                        failed.set(true);
+                    }
+                }
+            };
+
+            int reserved = reserve(pending.size() - 1);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < reserved; i++) {
+                    futures.add(executor.submit(worker));
+                }
+
+                worker.run();
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException exception) {
+                        exception.printStackTrace();
+                        failed.set(true);
+                    }
+                }
+            } finally {
+                if (reserved > 0) {
+                    connections.addAndGet(-reserved);
+                    handler.post(scheduleRunnable);
+                }
+            }
+
+            // chunks are only recorded as finished once their data is on disk
+            completed.addAll(finished);
+            channel.force(true);
+            writeValidator(validator, etag, length, getChunks(chunks, completed));
+
+            if (failed.get() || !pending.isEmpty()) return false;
+        }
+
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - start);
+        Log.i(TAG, String.format("downloaded %s: %d bytes in %d chunks in %d ms at %d KB/s", song.id, length, chunks, elapsed, length / elapsed));
+
+        return completed.size() == chunks && download.length() == length;
+    }
+
+    // takes up to the wanted number of connections that the concurrency still allows
+    private int reserve(int wanted) {
+        while (true) {
+            int current = connections.get();
+            int granted = Math.max(0, Math.min(wanted, concurrency - current));
+            if (granted == 0 || connections.compareAndSet(current, current + granted)) return granted;
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    private void fetchRange(Song song, String etag, FileChannel channel, long first, long last) throws IOException {
+        Request.Builder builder = new Request.Builder().url(MusicUtil.getDownloadUri(song));
+        builder.header("Range", "bytes=" + first + "-" + last);
+        if (!etag.isEmpty()) builder.header("If-Range", etag);
+
+        try (Response response = App.getHttpClient().newCall(builder.build()).execute()) {
+            // a full response means the file changed since the probe
+            if (response.code() != 206 || response.body() == null) {
+                throw new IOException(String.format("range %d-%d failed with %d", first, last, response.code()));
+            }
+
+            InputStream input = response.body().byteStream();
+            ByteBuffer buffer = ByteBuffer.allocate(65536);
+
+            long position = first;
+            int count;
+
+            while ((count = input.read(buffer.array())) != -1) {
+                buffer.clear();
+                buffer.limit(count);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+
+                transferred.addAndGet(count);
+                notification.update(song, count);
+            }
+
+            if (position != last + 1) {
+                throw new IOException(String.format("range %d-%d ended at %d", first, last, position));
+            }
+        }
+    }
+
+    // the number of chunks followed by the finished ones
+    private static String getChunks(int chunks, Set<Integer> completed) {
+        StringBuilder builder = new StringBuilder().append(chunks).append(':');
+        for (int index : completed) {
+            if (builder.charAt(builder.length() - 1) != ':') builder.append(',');
+            builder.append(index);
+        }
+
+        return builder.toString();
+    }
+
+    // weak etags cannot be used for ranges
+    private static String getEtag(Response response) {
+        String etag = response.header("ETag");
+        return etag == null || etag.startsWith("W/") ? "" : etag;
+    }
+
+    private static long getTotalLength(String range) {
+        if (range == null || !range.contains("/")) return -1;
+
+        try {
+            return Long.parseLong(range.substring(range.lastIndexOf('/') + 1).trim());
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    // first line is the etag, the second one the total size and the last one the chunks of a split download
+    private static String[] readValidator(File validator) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(validator))) {
+            String etag = reader.readLine();
+            String length = reader.readLine();
+            String chunks = reader.readLine();
+            if (etag == null || length == null || Long.parseLong(length) <= 0) return null;
+
+            return new String[]{etag, length, chunks != null ? chunks : ""};
+        } catch (IOException | NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    private static void writeValidator(File validator, String etag, long length, String chunks) throws IOException {
+        try (Writer writer = new FileWriter(validator)) {
+            writer.write(etag + "\n" + length + "\n" + chunks + "\n");
+        }
     }
 }
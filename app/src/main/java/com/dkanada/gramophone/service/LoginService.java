@@ -11,6 +11,7 @@ import androidx.annotation.Nullable;
 import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.BuildConfig;
 import com.dkanada.gramophone.R;
+import com.dkanada.gramophone.database.DatabaseExecutor;
 import com.dkanada.gramophone.model.User;
 import com.dkanada.gramophone.util.PreferenceUtil;
 
@@ -41,7 +42,11 @@ public class LoginService extends Service {
     }
 
     private void authenticate() {
-        User user = App.getDatabase().userDao().getUser(PreferenceUtil.getInstance(this).getUser());
+        String id = PreferenceUtil.getInstance(this).getUser();
+        DatabaseExecutor.read(database -> database.userDao().getUser(id), this::authenticate);
+    }
+
+    private void authenticate(User user) {
         Context context = this;
 
         if (user == null) {
@@ -30,6 +30,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.util.Pair;
 
 import com.bumptech.glide.RequestBuilder;
 import com.bumptech.glide.request.target.CustomTarget;
@@ -37,14 +38,24 @@ import com.bumptech.glide.request.transition.Transition;
 import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.BuildConfig;
 import com.dkanada.gramophone.R;
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.database.DownloadJob;
+import com.dkanada.gramophone.database.JellyDatabase;
+import com.dkanada.gramophone.database.QueueChange;
+import com.dkanada.gramophone.database.QueueSnapshot;
 import com.dkanada.gramophone.glide.BlurTransformation;
 import com.dkanada.gramophone.glide.CustomGlideRequest;
+import com.dkanada.gramophone.helper.QueueList;
+import com.dkanada.gramophone.helper.QueueSource;
+import com.dkanada.gramophone.helper.RadioSource;
 import com.dkanada.gramophone.helper.ShuffleHelper;
+import com.dkanada.gramophone.interfaces.MediaCallback;
 import com.dkanada.gramophone.model.Playlist;
 import com.dkanada.gramophone.model.Song;
 import com.dkanada.gramophone.service.notifications.PlayingNotification;
 import com.dkanada.gramophone.service.notifications.PlayingNotificationMarshmallow;
 import com.dkanada.gramophone.service.notifications.PlayingNotificationNougat;
+import com.dkanada.gramophone.service.playback.CachePrefetcher;
 import com.dkanada.gramophone.service.playback.LocalPlayer;
 import com.dkanada.gramophone.service.playback.Playback;
 import com.dkanada.gramophone.service.receivers.MediaButtonIntentReceiver;
@@ -62,13 +73,17 @@ import org.jellyfin.apiclient.model.session.PlaybackStopInfo;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static com.google.android.exoplayer2.Player.MEDIA_ITEM_TRANSITION_REASON_AUTO;
 import static com.google.android.exoplayer2.Player.MEDIA_ITEM_TRANSITION_REASON_PLAYLIST_CHANGED;
@@ -118,9 +133,14 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
     public static final int REPEAT_MODE_ALL = 1;
     public static final int REPEAT_MODE_THIS = 2;
 
-    public static final int SAVE_QUEUE = 0;
     public static final int LOAD_QUEUE = 9;
 
+    // the journal is folded into a new snapshot once this many changes were recorded
+    private static final int MAX_QUEUE_CHANGES = 500;
+
+    // songs restored ahead of the current position before playback starts and in every later step
+    private static final int QUEUE_WINDOW = 500;
+
     private final IBinder musicBinder = new MusicBinder();
 
     public boolean pendingQuit = false;
@@ -131,8 +151,8 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
 
     private Playback playback;
 
-    private List<Song> playingQueue = new ArrayList<>();
-    private List<Song> originalPlayingQueue = new ArrayList<>();
+    private QueueList playingQueue = new QueueList();
+    private QueueList originalPlayingQueue = new QueueList();
 
     private int position = -1;
     private int nextPosition = -1;
@@ -141,7 +161,30 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
     private int repeatMode;
 
     private boolean notHandledMetaChangedForCurrentTrack;
-    private boolean queuesRestored;
+    private volatile boolean queuesRestored;
+    private int queueChanges;
+    private volatile boolean queueLoading;
+    private volatile int queueGeneration;
+
+    // shuffle changes wait for the restore since both queues have to be complete to reorder them
+    private int pendingShuffleMode = -1;
+
+    // songs that were missing from the database were dropped while the queue was restored
+    private boolean queueMissing;
+
+    // songs added to the end wait as well so the windows restored later stay in front of them
+    private final List<Song> pendingSongs = new ArrayList<>();
+
+    // songs left after the current one when the next window or mix is requested
+    private static final int REFILL_DISTANCE = 50;
+
+    // played songs kept in front of the current one while the radio is on
+    private static final int RADIO_HISTORY = 100;
+
+    // virtual queue that appends the next window once playback gets close to the end
+    private QueueSource queueSource;
+    private RadioSource radioSource;
+    private final Random random = new Random();
     private boolean pausedByTransientLossOfFocus;
 
     private PlayingNotification playingNotification;
@@ -365,6 +408,10 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
 
         progressHandler.sendEmptyMessage(TRACK_ENDED);
         mediaSession.setActive(false);
+
+        // fold the journal into a snapshot so the next start can restore progressively
+        if (queueChanges > 0 && !queueLoading) saveQueue();
+
         quit();
         releaseResources();
         PreferenceUtil.getInstance(this).unregisterOnSharedPreferenceChangedListener(this);
@@ -392,27 +439,35 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
                 case LOAD_QUEUE:
                     service.restoreQueuesAndPositionIfNecessary();
                     break;
-                case SAVE_QUEUE:
-                    service.saveQueue();
-                    break;
             }
         }
     }
 
+    // full snapshot of both queues that replaces every recorded change
     private void saveQueue() {
         // copy queues by value to avoid concurrent modification exceptions from database
-        App.getDatabase().songDao().deleteSongs();
-        App.getDatabase().songDao().insertSongs(new ArrayList<>(playingQueue));
+        List<Song> playingQueue = new ArrayList<>(this.playingQueue);
+        List<Song> originalPlayingQueue = new ArrayList<>(this.originalPlayingQueue);
 
-        App.getDatabase().queueSongDao().deleteQueueSongs();
-        App.getDatabase().queueSongDao().setQueue(new ArrayList<>(playingQueue), 0);
-        App.getDatabase().queueSongDao().setQueue(new ArrayList<>(originalPlayingQueue), 1);
+        queueChanges = 0;
+        DatabaseExecutor.write(database -> database.queueChangeDao().setQueues(playingQueue, originalPlayingQueue));
     }
 
-    public void saveState() {
-        queueHandler.removeMessages(SAVE_QUEUE);
-        queueHandler.sendEmptyMessage(SAVE_QUEUE);
+    // records a single edit so the cost depends on the size of the change instead of the queue
+    private void saveQueueChange(QueueChange change, @Nullable List<Song> songs) {
+        if (!queuesRestored) return;
+
+        // a snapshot taken while the tail is still loading would drop the songs that are missing
+        if (++queueChanges > MAX_QUEUE_CHANGES && !queueLoading) {
+            saveQueue();
+            return;
+        }
 
+        List<Song> inserted = songs != null ? new ArrayList<>(songs) : null;
+        DatabaseExecutor.write(database -> database.queueChangeDao().addChange(change, inserted));
+    }
+
+    public void saveState() {
         PreferenceUtil.getInstance(this).setPosition(getPosition());
         PreferenceUtil.getInstance(this).setProgress(getSongProgressMillis());
     }
@@ -430,28 +485,188 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
 
     private synchronized void restoreQueuesAndPositionIfNecessary() {
         if (!queuesRestored && playingQueue.isEmpty()) {
-            List<Song> restoredQueue = App.getDatabase().queueSongDao().getQueue(0);
-            List<Song> restoredOriginalQueue = App.getDatabase().queueSongDao().getQueue(1);
+            QueueSnapshot snapshot = readQueue(database -> database.queueDao().getSnapshot());
+            Integer changes = readQueue(database -> database.queueChangeDao().getChangeCount());
 
-            int restoredPosition = PreferenceUtil.getInstance(this).getPosition();
-            int restoredProgress = PreferenceUtil.getInstance(this).getProgress();
+            if (snapshot != null && changes != null) restoreQueues(snapshot, changes);
+        } else if (!queuesRestored) {
+            // the queue was replaced before it could be restored so the journal is stale
+            saveQueue();
+        }
 
-            if (restoredQueue.size() > 0 && restoredQueue.size() == restoredOriginalQueue.size() && restoredPosition != -1) {
-                this.originalPlayingQueue = restoredOriginalQueue;
-                this.playingQueue = restoredQueue;
+        queuesRestored = true;
+    }
+
+    private void restoreQueues(QueueSnapshot snapshot, int changes) {
+        int restoredPosition = PreferenceUtil.getInstance(this).getPosition();
+        int restoredProgress = PreferenceUtil.getInstance(this).getProgress();
+
+        int size = snapshot.playing.length;
+        int originalSize = snapshot.original.length;
+        int end = size;
+
+        List<Song> restoredQueue = new ArrayList<>();
+        List<Song> restoredOriginalQueue = new ArrayList<>();
+        boolean original = shuffleMode == SHUFFLE_MODE_NONE;
+
+        if (changes != 0) {
+            // recorded changes can touch any index so both queues have to be complete before replaying
+            Integer replayed = readQueue(database -> {
+                restoredQueue.addAll(database.queueDao().getSongs(snapshot, snapshot.playing, 0, snapshot.playing.length));
+                restoredOriginalQueue.addAll(database.queueDao().getSongs(snapshot, snapshot.original, 0, snapshot.original.length));
+
+                return database.queueChangeDao().replay(restoredQueue, restoredOriginalQueue);
+            });
+
+            if (replayed == null) {
+                restoredQueue.clear();
+                restoredOriginalQueue.clear();
+            }
+
+            queueChanges = replayed != null ? replayed : 0;
+            size = restoredQueue.size();
+            originalSize = restoredOriginalQueue.size();
+            end = size;
+        } else {
+            // only the songs around the current position are needed to start playback
+            end = Math.min(size, Math.max(restoredPosition, 0) + QUEUE_WINDOW);
 
-                position = restoredPosition;
-                openCurrent();
+            // removing a song from a shuffled queue looks it up in the original queue so that one is loaded at once
+            int window = end;
+            int originalWindow = original ? end : originalSize;
+            readQueue(database -> {
+                restoredQueue.addAll(database.queueDao().getSongs(snapshot, snapshot.playing, 0, window));
+                restoredOriginalQueue.addAll(database.queueDao().getSongs(snapshot, snapshot.original, 0, originalWindow));
 
-                if (restoredProgress > 0) seek(restoredProgress);
+                return null;
+            });
+        }
 
-                notHandledMetaChangedForCurrentTrack = true;
-                handleChangeInternal(META_CHANGED);
-                handleChangeInternal(QUEUE_CHANGED);
+        // missing songs are only dropped after every index was applied and the position follows the songs that were found
+        // a partial window keeps its bounds in snapshot indices since later windows are read from the snapshot
+        if (restoredPosition >= 0 && restoredPosition < end) {
+            int count = restoredQueue.size();
+            int originalCount = restoredOriginalQueue.size();
+
+            restoredPosition = Math.min(removeMissing(restoredQueue, restoredPosition), restoredQueue.size() - 1);
+            removeMissing(restoredOriginalQueue, -1);
+            queueMissing = restoredQueue.size() != count || restoredOriginalQueue.size() != originalCount;
+
+            if (end == size) {
+                size = restoredQueue.size();
+                originalSize = restoredOriginalQueue.size();
+                end = size;
             }
         }
 
-        queuesRestored = true;
+        if (size > 0 && size == originalSize && restoredPosition != -1 && restoredPosition < end) {
+            this.originalPlayingQueue = new QueueList(restoredOriginalQueue);
+            this.playingQueue = new QueueList(restoredQueue);
+
+            position = restoredPosition;
+            openCurrent();
+
+            if (restoredProgress > 0) seek(restoredProgress);
+
+            notHandledMetaChangedForCurrentTrack = true;
+            handleChangeInternal(META_CHANGED);
+            handleChangeInternal(QUEUE_CHANGED);
+
+            if (end < size) {
+                queueLoading = true;
+                restoreQueueWindow(snapshot, end, original, queueGeneration);
+            } else if (queueMissing) {
+                uiThreadHandler.post(this::finishQueueRestore);
+            }
+        }
+    }
+
+    // appends the rest of the restored queue while the current song is already playing
+    // songs are only added at the end so edits made in the meantime stay valid for the journal
+    private void restoreQueueWindow(final QueueSnapshot snapshot, final int start, final boolean original, final int generation) {
+        int size = snapshot.size();
+        int end = Math.min(size, start + QUEUE_WINDOW);
+
+        DatabaseExecutor.read(database -> {
+            List<Song> songs = database.queueDao().getSongs(snapshot, snapshot.playing, start, end);
+            List<Song> originalSongs = original ? database.queueDao().getSongs(snapshot, snapshot.original, start, end) : new ArrayList<>();
+
+            return new Pair<>(songs, originalSongs);
+        }, window -> {
+            if (generation != queueGeneration) return;
+
+            int count = window.first.size();
+            removeMissing(window.first, -1);
+            removeMissing(window.second, -1);
+
+            if (window.first.size() != count) queueMissing = true;
+            playingQueue.addAll(window.first);
+            originalPlayingQueue.addAll(window.second);
+
+            if (end < size) {
+                restoreQueueWindow(snapshot, end, original, generation);
+                notifyChange(QUEUE_CHANGED);
+            } else {
+                finishQueueRestore();
+            }
+        });
+    }
+
+    // the restore runs on the queue thread which waits for the database readers
+    private static <T> T readQueue(Function<JellyDatabase, T> query) {
+        try {
+            return DatabaseExecutor.read(query).get();
+        } catch (ExecutionException | InterruptedException exception) {
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    // drops the songs that were not found and returns where the given position ends up
+    private static int removeMissing(List<Song> queue, int position) {
+        int result = position;
+        for (int i = queue.size() - 1; i >= 0; i--) {
+            if (queue.get(i) != null) continue;
+
+            queue.remove(i);
+            if (i < position) result--;
+        }
+
+        return result;
+    }
+
+    // applies the edits that needed the complete queue in the order they were made
+    private void finishQueueRestore() {
+        queueLoading = false;
+
+        // the journal was recorded against the songs that were found so the snapshot has to match them
+        if (queueMissing) {
+            queueMissing = false;
+            saveQueue();
+        }
+
+        if (!pendingSongs.isEmpty()) {
+            List<Song> songs = new ArrayList<>(pendingSongs);
+            pendingSongs.clear();
+            addSongs(songs);
+        } else {
+            notifyChange(QUEUE_CHANGED);
+        }
+
+        if (pendingShuffleMode != -1) {
+            int mode = pendingShuffleMode;
+            pendingShuffleMode = -1;
+            setShuffleMode(mode);
+        }
+    }
+
+    // stops a progressive restore once the queue it was appending to has been replaced
+    private void cancelQueueRestore() {
+        queueGeneration++;
+        queueLoading = false;
+        queueMissing = false;
+        pendingShuffleMode = -1;
+        pendingSongs.clear();
     }
 
     private void quit() {
@@ -523,6 +738,13 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
 
             nextPosition = getNextPosition(false);
             playback.queueDataSource(getSongAt(nextPosition));
+            playback.prefetchDataSources(getUpcomingSongs(CachePrefetcher.TRACKS));
+
+            // songs waiting to be downloaded move ahead of the rest once they are about to play
+            if (DownloadService.isRunning()) {
+                List<String> ids = Arrays.asList(getCurrentSong().id, getSongAt(nextPosition).id);
+                DatabaseExecutor.write(database -> database.downloadJobDao().raisePriority(ids, DownloadJob.PRIORITY_PLAYING));
+            }
         }
     }
 
@@ -663,6 +885,24 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
         return position;
     }
 
+    // songs a skip would reach in order which is why repeating the current song is ignored here
+    public List<Song> getUpcomingSongs(int count) {
+        List<Song> songs = new ArrayList<>(count);
+        int size = getPlayingQueue().size();
+
+        for (int i = 1; i < size && songs.size() < count; i++) {
+            int position = getPosition() + i;
+            if (position >= size) {
+                if (getRepeatMode() == REPEAT_MODE_NONE) break;
+                position -= size;
+            }
+
+            songs.add(getPlayingQueue().get(position));
+        }
+
+        return songs;
+    }
+
     private boolean isLastTrack() {
         return getPosition() == getPlayingQueue().size() - 1;
     }
@@ -690,9 +930,13 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
 
     public void openQueue(@Nullable final List<Song> playingQueue, final int startPosition, final boolean startPlaying) {
         if (playingQueue != null && !playingQueue.isEmpty() && startPosition >= 0 && startPosition < playingQueue.size()) {
+            cancelQueueRestore();
+            queueSource = null;
+            radioSource = null;
+
             // it is important to copy the playing queue here first as we might add or remove songs later
-            originalPlayingQueue = new ArrayList<>(playingQueue);
-            this.playingQueue = new ArrayList<>(originalPlayingQueue);
+            originalPlayingQueue = new QueueList(playingQueue);
+            this.playingQueue = new QueueList(originalPlayingQueue);
 
             int position = startPosition;
             if (shuffleMode == SHUFFLE_MODE_SHUFFLE) {
@@ -706,32 +950,151 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
                 setPosition(position);
             }
 
+            saveQueue();
             notifyChange(QUEUE_CHANGED);
         }
     }
 
+    // only the first window is requested before playback starts
+    public void openSource(final QueueSource source, final boolean startPlaying) {
+        source.start(new MediaCallback<Song>() {
+            @Override
+            public void onLoadMedia(List<Song> songs) {
+                if (songs.isEmpty()) return;
+
+                openQueue(songs, source.getOffset(), startPlaying);
+                queueSource = source;
+
+                if (source.isShuffled() && shuffleMode != SHUFFLE_MODE_SHUFFLE) {
+                    setShuffleMode(SHUFFLE_MODE_SHUFFLE);
+                } else if (!source.isShuffled() && shuffleMode != SHUFFLE_MODE_NONE && !PreferenceUtil.getInstance(MusicService.this).getRememberShuffle()) {
+                    setShuffleMode(SHUFFLE_MODE_NONE);
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                exception.printStackTrace();
+                Toast.makeText(getApplicationContext(), R.string.error_unexpected, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    // the queue keeps going with instant mixes based on the songs that were already queued
+    public void startRadio(Song song) {
+        openQueue(Collections.singletonList(song), 0, true);
+        if (shuffleMode != SHUFFLE_MODE_NONE) setShuffleMode(SHUFFLE_MODE_NONE);
+
+        // the first mix is requested once the song starts playing
+        radioSource = new RadioSource();
+        radioSource.remember(playingQueue);
+    }
+
+    public boolean isRadio() {
+        return radioSource != null;
+    }
+
+    private void refillQueue() {
+        if (playingQueue.isEmpty()) return;
+
+        // sources that started in the middle of their results fill in the songs before it as well
+        if (queueSource != null && queueSource.hasPrevious() && getPosition() <= REFILL_DISTANCE && getShuffleMode() == SHUFFLE_MODE_NONE) {
+            final QueueSource source = queueSource;
+            source.loadPrevious(songs -> {
+                if (source == queueSource && !songs.isEmpty() && getShuffleMode() == SHUFFLE_MODE_NONE) prependSongs(songs);
+            });
+        }
+
+        if (playingQueue.size() - getPosition() > REFILL_DISTANCE) return;
+
+        if (queueSource != null && queueSource.hasMore()) {
+            final QueueSource source = queueSource;
+            source.load(songs -> {
+                if (source == queueSource && !songs.isEmpty()) addSongs(songs);
+            });
+        } else if (radioSource != null && !radioSource.isLoading()) {
+            trimQueue();
+
+            // a random song from the end of the queue keeps the mix from narrowing down to one artist
+            int start = Math.max(0, playingQueue.size() - RadioSource.WINDOW);
+            Song seed = playingQueue.get(start + random.nextInt(playingQueue.size() - start));
+
+            final RadioSource source = radioSource;
+            source.load(seed, new MediaCallback<Song>() {
+                @Override
+                public void onLoadMedia(List<Song> songs) {
+                    if (source == radioSource && !songs.isEmpty()) addSongs(songs);
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    if (source != radioSource) return;
+
+                    Toast.makeText(getApplicationContext(), R.string.error_unexpected, Toast.LENGTH_SHORT).show();
+                }
+            });
+        }
+    }
+
+    // removes the oldest played songs so an endless radio queue does not keep growing
+    private void trimQueue() {
+        int count = Math.min(getPosition(), playingQueue.size() - 1) - RADIO_HISTORY;
+        if (count <= 0) return;
+
+        boolean shuffled = getShuffleMode() != SHUFFLE_MODE_NONE;
+        for (int i = 0; i < count; i++) {
+            if (!shuffled) {
+                playingQueue.remove(0);
+                originalPlayingQueue.remove(0);
+            } else {
+                originalPlayingQueue.remove(playingQueue.remove(0));
+            }
+
+            saveQueueChange(QueueChange.remove(0, shuffled), null);
+        }
+
+        position -= count;
+        notifyChange(QUEUE_CHANGED);
+    }
+
+    // songs in front of the current one only move the position so playback is not interrupted
+    private void prependSongs(List<Song> songs) {
+        playingQueue.addAll(0, songs);
+        originalPlayingQueue.addAll(0, songs);
+
+        position += songs.size();
+        if (nextPosition != -1) nextPosition += songs.size();
+
+        saveQueueChange(QueueChange.insert(0, songs), songs);
+        notifyChange(QUEUE_CHANGED);
+    }
+
     public void addSong(int position, Song song) {
         playingQueue.add(position, song);
         originalPlayingQueue.add(position, song);
+        saveQueueChange(QueueChange.insert(position, Collections.singletonList(song)), Collections.singletonList(song));
         notifyChange(QUEUE_CHANGED);
     }
 
     public void addSong(Song song) {
-        playingQueue.add(song);
-        originalPlayingQueue.add(song);
-        notifyChange(QUEUE_CHANGED);
+        addSongs(Collections.singletonList(song));
     }
 
     public void addSongs(int position, List<Song> songs) {
         playingQueue.addAll(position, songs);
         originalPlayingQueue.addAll(position, songs);
+        saveQueueChange(QueueChange.insert(position, songs), songs);
         notifyChange(QUEUE_CHANGED);
     }
 
     public void addSongs(List<Song> songs) {
-        playingQueue.addAll(songs);
-        originalPlayingQueue.addAll(songs);
-        notifyChange(QUEUE_CHANGED);
+        // the end of the queue is not known until the restore is done
+        if (queueLoading) {
+            pendingSongs.addAll(songs);
+            return;
+        }
+
+        addSongs(playingQueue.size(), songs);
     }
 
     public void removeSong(int position) {
@@ -742,6 +1105,7 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
             originalPlayingQueue.remove(playingQueue.remove(position));
         }
 
+        saveQueueChange(QueueChange.remove(position, getShuffleMode() != SHUFFLE_MODE_NONE), null);
         reposition(position);
         notifyChange(QUEUE_CHANGED);
     }
@@ -769,6 +1133,8 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
             originalPlayingQueue.add(to, tmpSong);
         }
 
+        saveQueueChange(QueueChange.move(from, to, getShuffleMode() != SHUFFLE_MODE_NONE), null);
+
         if (from > currentPosition && to <= currentPosition) {
             position = currentPosition + 1;
         } else if (from < currentPosition && to >= currentPosition) {
@@ -781,8 +1147,12 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
     }
 
     public void clearQueue() {
+        cancelQueueRestore();
+        queueSource = null;
+        radioSource = null;
         playingQueue.clear();
         originalPlayingQueue.clear();
+        saveQueue();
 
         setPosition(-1);
         notifyChange(QUEUE_CHANGED);
@@ -887,13 +1257,17 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
         return playback.getDuration();
     }
 
+    // duration of the songs after the given position
     public long getQueueDurationMillis(int position) {
-        long duration = 0;
-        for (int i = position + 1; i < playingQueue.size(); i++) {
-            duration += playingQueue.get(i).duration;
-        }
+        return playingQueue.getDuration(position + 1, playingQueue.size());
+    }
 
-        return duration;
+    // time left until the song at the given position starts playing
+    public long getTimeUntilMillis(int position) {
+        if (position <= getPosition()) return 0;
+
+        long remaining = Math.max(0, getSongDurationMillis() - getSongProgressMillis());
+        return remaining + playingQueue.getDuration(getPosition() + 1, position);
     }
 
     public int seek(int millis) {
@@ -931,26 +1305,28 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
     }
 
     public void setShuffleMode(final int shuffleMode) {
+        if (queueLoading) {
+            pendingShuffleMode = shuffleMode;
+            return;
+        }
+
         PreferenceUtil.getInstance(this).setShuffle(shuffleMode);
 
         switch (shuffleMode) {
             case SHUFFLE_MODE_SHUFFLE:
                 this.shuffleMode = shuffleMode;
-                ShuffleHelper.makeShuffleList(this.getPlayingQueue(), getPosition());
+                int[] order = ShuffleHelper.makeShuffleList(this.getPlayingQueue(), getPosition());
+                saveQueueChange(QueueChange.shuffle(order), null);
                 position = 0;
                 break;
             case SHUFFLE_MODE_NONE:
                 this.shuffleMode = shuffleMode;
-                String currentSongId = getCurrentSong().id;
-                playingQueue = new ArrayList<>(originalPlayingQueue);
-                int newPosition = 0;
-                for (Song song : getPlayingQueue()) {
-                    if (song.id == currentSongId) {
-                        newPosition = getPlayingQueue().indexOf(song);
-                    }
-                }
+                Song currentSong = getCurrentSong();
+                playingQueue = new QueueList(originalPlayingQueue);
+                saveQueueChange(QueueChange.unshuffle(), null);
 
-                position = newPosition;
+                // the id index finds the first occurrence without walking the queue
+                position = Math.max(0, playingQueue.indexOf(currentSong));
                 break;
         }
 
@@ -987,6 +1363,7 @@ public class MusicService extends Service implements SharedPreferences.OnSharedP
                 updateMediaSessionState();
                 PreferenceUtil.getInstance(this).setPosition(getPosition());
                 PreferenceUtil.getInstance(this).setProgress(getSongProgressMillis());
+                uiThreadHandler.post(this::refillQueue);
                 break;
             case QUEUE_CHANGED:
                 // because playing queue size might have changed
@@ -0,0 +1,262 @@
+package com.dkanada.gramophone.service;
+
+import android.app.Service;
+import android.content.Intent;
+import android.os.IBinder;
+
+import androidx.annotation.Nullable;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.BuildConfig;
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.database.LibraryAlbum;
+import com.dkanada.gramophone.database.LibraryArtist;
+import com.dkanada.gramophone.database.LibraryGenre;
+import com.dkanada.gramophone.database.LibrarySong;
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.ItemsDecoder;
+import com.dkanada.gramophone.util.ItemsUtil;
+import com.dkanada.gramophone.util.PreferenceUtil;
+
+import org.jellyfin.apiclient.model.querying.ArtistsQuery;
+import org.jellyfin.apiclient.model.querying.ItemFields;
+import org.jellyfin.apiclient.model.querying.ItemFilter;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsByNameQuery;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class SyncService extends Service {
+    public static final String PACKAGE_NAME = BuildConfig.APPLICATION_ID;
+
+    public static final String EXTRA_LIBRARY = PACKAGE_NAME + ".extra.library";
+    public static final String STATE_SYNCED = PACKAGE_NAME + ".synced";
+
+    // deleted items are only removed during a full sync
+    private static final long FULL_SYNC_INTERVAL = TimeUnit.DAYS.toMillis(7);
+    private static final long SYNC_OVERLAP = TimeUnit.MINUTES.toMillis(5);
+    private static final int PAGE_SIZE = 500;
+
+    private final Set<String> libraries = Collections.synchronizedSet(new HashSet<>());
+
+    // pages are fetched and decoded here while the database writer stores them
+    private ExecutorService executor;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        String library = intent != null ? intent.getStringExtra(EXTRA_LIBRARY) : null;
+        if (library != null && libraries.add(library)) {
+            new LibrarySync(library).syncArtists(0);
+        }
+
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        executor.shutdown();
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
+
+    private void finish(String library) {
+        libraries.remove(library);
+        if (libraries.isEmpty()) stopSelf();
+    }
+
+    private class LibrarySync {
+        private final String user;
+        private final String library;
+        private final long synced;
+        private final boolean full;
+        private final Date since;
+
+        private LibrarySync(String library) {
+            this.user = App.getApiClient().getCurrentUserId();
+            this.library = library;
+
+            long previous = PreferenceUtil.getInstance(SyncService.this).getLibrarySync(user, library);
+            this.synced = System.currentTimeMillis();
+            this.full = synced - previous > FULL_SYNC_INTERVAL;
+
+            // items saved on the server while the previous sync was running are fetched again
+            this.since = full ? null : new Date(previous - SYNC_OVERLAP);
+        }
+
+        private void syncArtists(int index) {
+            ArtistsQuery query = new ArtistsQuery();
+            applyProperties(query, index);
+
+            query.setFields(new ItemFields[]{ItemFields.Genres, ItemFields.DateCreated});
+            executor.execute(() -> {
+                try {
+                    ItemsDecoder.Result<LibraryArtist> result = ItemsUtil.getAlbumArtists(query, () -> new LibraryArtist(user, library, synced), ItemsDecoder::readArtist);
+
+                    DatabaseExecutor.write(database -> database.libraryDao().insertArtists(result.items));
+                    if (hasMore(result, index)) {
+                        syncArtists(index + result.items.size());
+                        return;
+                    }
+
+                    DatabaseExecutor.write(database -> database.libraryDao().pruneArtists(user, library, synced));
+                    syncGenres(0);
+                } catch (IOException | RuntimeException exception) {
+                    // malformed responses fail inside the decoder and must not leave the library marked as syncing
+                    exception.printStackTrace();
+                    finish(library);
+                }
+            });
+        }
+
+        private void syncGenres(int index) {
+            ItemsByNameQuery query = new ItemsByNameQuery();
+            applyProperties(query, index);
+
+            executor.execute(() -> {
+                try {
+                    ItemsDecoder.Result<LibraryGenre> result = ItemsUtil.getGenres(query, () -> new LibraryGenre(user, library, synced), ItemsDecoder::readGenre);
+
+                    DatabaseExecutor.write(database -> database.libraryDao().insertGenres(result.items));
+                    if (hasMore(result, index)) {
+                        syncGenres(index + result.items.size());
+                        return;
+                    }
+
+                    DatabaseExecutor.write(database -> database.libraryDao().pruneGenres(user, library, synced));
+                    syncAlbums(0);
+                } catch (IOException | RuntimeException exception) {
+                    exception.printStackTrace();
+                    finish(library);
+                }
+            });
+        }
+
+        private void syncAlbums(int index) {
+            ItemQuery query = new ItemQuery();
+            applyProperties(query, index);
+
+            query.setIncludeItemTypes(new String[]{"MusicAlbum"});
+            query.setFields(new ItemFields[]{ItemFields.DateCreated});
+            executor.execute(() -> {
+                try {
+                    ItemsDecoder.Result<LibraryAlbum> result = ItemsUtil.getItems(query, () -> new LibraryAlbum(user, library, synced), ItemsDecoder::readAlbum);
+
+                    DatabaseExecutor.write(database -> database.libraryDao().insertAlbums(result.items));
+                    if (hasMore(result, index)) {
+                        syncAlbums(index + result.items.size());
+                        return;
+                    }
+
+                    if (full) DatabaseExecutor.write(database -> database.libraryDao().pruneAlbums(user, library, synced));
+                    syncSongs(0);
+                } catch (IOException | RuntimeException exception) {
+                    exception.printStackTrace();
+                    finish(library);
+                }
+            });
+        }
+
+        private void syncSongs(int index) {
+            ItemQuery query = new ItemQuery();
+            applyProperties(query, index);
+
+            query.setIncludeItemTypes(new String[]{"Audio"});
+            query.setFields(new ItemFields[]{ItemFields.MediaSources, ItemFields.DateCreated});
+            executor.execute(() -> {
+                try {
+                    ItemsDecoder.Result<LibrarySong> result = ItemsUtil.getItems(query, () -> new LibrarySong(user, library, synced), ItemsDecoder::readSong);
+
+                    DatabaseExecutor.write(database -> database.libraryDao().insertSongs(result.items));
+                    if (hasMore(result, index)) {
+                        syncSongs(index + result.items.size());
+                        return;
+                    }
+
+                    if (full) DatabaseExecutor.write(database -> database.libraryDao().pruneSongs(user, library, synced));
+                    syncFavorites(0, new ArrayList<>());
+                } catch (IOException | RuntimeException exception) {
+                    exception.printStackTrace();
+                    finish(library);
+                }
+            });
+        }
+
+        // favorites are user data that does not change the saved date so they are fetched in full every time
+        private void syncFavorites(int index, List<String> favorites) {
+            ItemQuery query = new ItemQuery();
+            query.setUserId(user);
+            query.setParentId(library);
+            query.setRecursive(true);
+            query.setStartIndex(index);
+            query.setLimit(PAGE_SIZE);
+
+            query.setIncludeItemTypes(new String[]{"Audio"});
+            query.setFilters(new ItemFilter[]{ItemFilter.IsFavorite});
+            executor.execute(() -> {
+                try {
+                    ItemsDecoder.Result<Song> result = ItemsUtil.getItems(query, Song::new, ItemsDecoder::readSong);
+
+                    for (Song song : result.items) favorites.add(song.id);
+                    if (hasMore(result, index)) {
+                        syncFavorites(index + result.items.size(), favorites);
+                        return;
+                    }
+
+                    // the writer runs in order so every page is stored by the time this completes
+                    DatabaseExecutor.write(database -> database.libraryDao().setFavorites(user, library, favorites), () -> {
+                        PreferenceUtil.getInstance(SyncService.this).setLibrarySync(user, library, synced);
+                        sendBroadcast(new Intent(STATE_SYNCED).putExtra(EXTRA_LIBRARY, library));
+                        finish(library);
+                    });
+                } catch (IOException | RuntimeException exception) {
+                    exception.printStackTrace();
+                    finish(library);
+                }
+            });
+        }
+
+        private boolean hasMore(ItemsDecoder.Result<?> result, int index) {
+            return result.items.size() != 0 && index + result.items.size() < result.total;
+        }
+
+        private void applyProperties(ItemQuery query, int index) {
+            query.setUserId(user);
+            query.setParentId(library);
+            query.setRecursive(true);
+            query.setStartIndex(index);
+            query.setLimit(PAGE_SIZE);
+
+            if (since != null) query.setMinDateLastSaved(since);
+        }
+
+        private void applyProperties(ItemsByNameQuery query, int index) {
+            query.setUserId(user);
+            query.setParentId(library);
+            query.setRecursive(true);
+            query.setStartIndex(index);
+            query.setLimit(PAGE_SIZE);
+        }
+    }
+}
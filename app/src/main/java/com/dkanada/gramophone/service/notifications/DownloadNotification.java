@@ -1,11 +1,13 @@
 package com.dkanada.gramophone.service.notifications;
 
+import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.os.SystemClock;
 
 import androidx.annotation.RequiresApi;
 import androidx.core.app.NotificationCompat;
@@ -15,22 +17,31 @@ import com.dkanada.gramophone.activities.MainActivity;
 import com.dkanada.gramophone.model.Song;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static android.content.Context.NOTIFICATION_SERVICE;
 
 public class DownloadNotification {
     private static final String CHANNEL_ID = DownloadNotification.class.getSimpleName();
-    private static final int NOTIFICATION_ID = 2;
+    public static final int NOTIFICATION_ID = 2;
+
+    // progress is counted on every read but only posted a few times per second
+    private static final long UPDATE_INTERVAL = 250;
 
     private final Context context;
     private final NotificationManager notificationManager;
 
     private final List<Song> songs;
 
-    private int current;
-    private int maximum;
+    // progress of every song so a song that is started again replaces what it counted before
+    private final Map<String, long[]> progress = new HashMap<>();
+
+    private long current;
+    private long maximum;
+    private long updated;
 
     public DownloadNotification(Context context) {
         this.notificationManager = (NotificationManager) context.getSystemService(NOTIFICATION_SERVICE);
@@ -47,10 +58,41 @@ public class DownloadNotification {
         }
     }
 
-    public synchronized void update(int current, int maximum) {
+    // sets where a song starts and how large it is which is posted right away
+    public synchronized void setProgress(Song song, long current, long maximum) {
+        long[] previous = progress.put(song.id, new long[]{current, maximum});
+        if (previous != null) {
+            this.current -= previous[0];
+            this.maximum -= previous[1];
+        }
+
         this.current += current;
         this.maximum += maximum;
 
+        updated = SystemClock.elapsedRealtime();
+        notificationManager.notify(NOTIFICATION_ID, build());
+    }
+
+    public synchronized void update(Song song, long count) {
+        long[] values = progress.get(song.id);
+        if (values == null) return;
+
+        values[0] += count;
+        current += count;
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - updated < UPDATE_INTERVAL) return;
+
+        updated = now;
+        notificationManager.notify(NOTIFICATION_ID, build());
+    }
+
+    // the service is started in the foreground so a notification is needed before the first download
+    public synchronized Notification build() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            createNotificationChannel();
+        }
+
         Intent action = new Intent(context, MainActivity.class).setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
         PendingIntent clickIntent = PendingIntent.getActivity(context, 0, action, 0);
 
@@ -63,17 +105,23 @@ public class DownloadNotification {
             .setSmallIcon(R.drawable.ic_notification)
             .setContentIntent(clickIntent)
             .setContentTitle(String.format(context.getString(R.string.downloading_x_songs), songs.size()))
-            .setProgress(this.maximum, this.current, false)
+            .setProgress((int) (maximum / 1024), (int) (current / 1024), false)
             .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
             .setStyle(style)
             .setShowWhen(false);
 
-        notificationManager.notify(NOTIFICATION_ID, builder.build());
+        return builder.build();
     }
 
     public synchronized void stop(Song song) {
         if (song != null) {
             songs.remove(song);
+
+            long[] previous = progress.remove(song.id);
+            if (previous != null) {
+                current -= previous[0];
+                maximum -= previous[1];
+            }
         }
 
         if (songs.size() != 0) {
@@ -83,11 +131,8 @@ public class DownloadNotification {
         current = 0;
         maximum = 0;
 
+        // the channel is kept since it cannot be deleted while the service is in the foreground
         notificationManager.cancel(NOTIFICATION_ID);
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            notificationManager.deleteNotificationChannel(CHANNEL_ID);
-        }
     }
 
     @RequiresApi(Build.VERSION_CODES.O)
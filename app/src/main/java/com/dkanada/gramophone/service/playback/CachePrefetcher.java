@@ -0,0 +1,142 @@
+package com.dkanada.gramophone.service.playback;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Uri;
+import android.util.Log;
+
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.PreferenceUtil;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// writes the start of the upcoming songs into the media cache so skipping does not wait on the network
+public class CachePrefetcher {
+    public static final String TAG = CachePrefetcher.class.getSimpleName();
+
+    public static final int TRACKS = 3;
+    private static final int SECONDS = 30;
+
+    // only the next song is warmed on metered networks
+    private static final int METERED_TRACKS = 1;
+
+    // prefetched data should never push the songs that were actually played out of the cache
+    private static final int CACHE_FRACTION = 4;
+
+    private final Context context;
+    private final Supplier<CacheDataSource> dataSource;
+    private final Function<Song, Uri> uri;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile CacheWriter writer;
+
+    public CachePrefetcher(Context context, Supplier<CacheDataSource> dataSource, Function<Song, Uri> uri) {
+        this.context = context;
+        this.dataSource = dataSource;
+        this.uri = uri;
+    }
+
+    // songs are expected in playback order and replace whatever was scheduled before
+    public void prefetch(List<Song> songs) {
+        int current = generation.incrementAndGet();
+        cancelWriter();
+
+        List<DataSpec> specs = select(songs);
+        if (specs.isEmpty()) return;
+
+        executor.execute(() -> {
+            for (DataSpec spec : specs) {
+                if (current != generation.get()) return;
+
+                CacheWriter next = new CacheWriter(dataSource.get(), spec, true, null, null);
+                writer = next;
+
+                // cancelled between the check above and publishing the writer
+                if (current != generation.get()) return;
+
+                try {
+                    next.cache();
+                } catch (InterruptedIOException exception) {
+                    return;
+                } catch (IOException exception) {
+                    Log.i(TAG, String.format("prefetch failed: %s", exception.getMessage()));
+                } finally {
+                    writer = null;
+                }
+            }
+        });
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+        cancelWriter();
+    }
+
+    // the cache can only be released after the last writer has stopped
+    public void release() {
+        cancel();
+        executor.shutdownNow();
+
+        try {
+            executor.awaitTermination(500, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    private void cancelWriter() {
+        CacheWriter current = writer;
+        if (current != null) current.cancel();
+    }
+
+    private List<DataSpec> select(List<Song> songs) {
+        List<DataSpec> specs = new ArrayList<>();
+        if (songs.isEmpty()) return specs;
+
+        ConnectivityManager manager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        int tracks = manager != null && manager.isActiveNetworkMetered() ? METERED_TRACKS : TRACKS;
+
+        PreferenceUtil preferences = PreferenceUtil.getInstance(context);
+        long budget = preferences.getMediaCacheSize() / CACHE_FRACTION;
+        long maximum = Long.parseLong(preferences.getMaximumBitrate()) / 8;
+
+        for (Song song : songs) {
+            if (specs.size() >= tracks) break;
+
+            Uri location = uri.apply(song);
+            if (!"http".equals(location.getScheme()) && !"https".equals(location.getScheme())) continue;
+
+            long length = getLength(song, maximum);
+            if (length > budget) break;
+
+            budget -= length;
+            specs.add(new DataSpec.Builder().setUri(location).setLength(length).build());
+        }
+
+        return specs;
+    }
+
+    // the stream is never larger than the source file and the bitrate limit allows
+    private static long getLength(Song song, long maximum) {
+        long rate = song.bitRate > 0 ? song.bitRate / 8 : maximum;
+        if (song.size > 0 && song.duration > 0) {
+            rate = song.size * 1000 / song.duration;
+        }
+
+        long length = Math.min(rate, maximum) * SECONDS;
+        return song.size > 0 ? Math.min(length, song.size) : length;
+    }
+}
@@ -7,31 +7,27 @@ import android.widget.Toast;
 
 import com.dkanada.gramophone.R;
 import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.util.MediaCache;
 import com.dkanada.gramophone.util.MusicUtil;
-import com.dkanada.gramophone.util.PreferenceUtil;
 import com.google.android.exoplayer2.ExoPlaybackException;
 import com.google.android.exoplayer2.Player;
 import com.google.android.exoplayer2.Player.EventListener;
 import com.google.android.exoplayer2.MediaItem;
 import com.google.android.exoplayer2.SimpleExoPlayer;
-import com.google.android.exoplayer2.database.ExoDatabaseProvider;
 import com.google.android.exoplayer2.source.MediaSourceFactory;
 import com.google.android.exoplayer2.upstream.DataSource;
-import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
-import com.google.android.exoplayer2.upstream.FileDataSource;
-import com.google.android.exoplayer2.upstream.cache.CacheDataSink;
-import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
-import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
-import com.google.android.exoplayer2.upstream.cache.SimpleCache;
 
 import java.io.File;
+import java.util.List;
 
 public class LocalPlayer implements Playback {
     public static final String TAG = LocalPlayer.class.getSimpleName();
 
     private final Context context;
     private final SimpleExoPlayer exoPlayer;
-    private final SimpleCache simpleCache;
+    private final CachePrefetcher prefetcher;
+
+    private Song current;
 
     private PlaybackCallbacks callbacks;
 
@@ -57,6 +53,11 @@ public class LocalPlayer implements Playback {
                 exoPlayer.removeMediaItem(0);
             }
 
+            // gapless transitions never go through setDataSource so the pin follows the player here
+            if (mediaItem != null && mediaItem.playbackProperties != null && mediaItem.playbackProperties.tag instanceof Song) {
+                setCurrent((Song) mediaItem.playbackProperties.tag);
+            }
+
             if (callbacks != null) {
                 callbacks.onTrackChanged(reason);
             }
@@ -86,13 +87,7 @@ public class LocalPlayer implements Playback {
 
         exoPlayer.addListener(eventListener);
         exoPlayer.prepare();
-
-        long cacheSize = PreferenceUtil.getInstance(context).getMediaCacheSize();
-        LeastRecentlyUsedCacheEvictor recentlyUsedCache = new LeastRecentlyUsedCacheEvictor(cacheSize);
-        ExoDatabaseProvider databaseProvider = new ExoDatabaseProvider(context);
-
-        File cacheDirectory = new File(PreferenceUtil.getInstance(context).getLocationCache(), "exoplayer");
-        simpleCache = new SimpleCache(cacheDirectory, recentlyUsedCache, databaseProvider);
+        prefetcher = new CachePrefetcher(context, MediaCache::createDataSource, LocalPlayer::getUri);
     }
 
     @Override
@@ -106,6 +101,16 @@ public class LocalPlayer implements Playback {
         exoPlayer.clearMediaItems();
         appendDataSource(song);
         exoPlayer.seekTo(0, 0);
+        setCurrent(song);
+    }
+
+    // the song being played should not be evicted by prefetching the next ones
+    private void setCurrent(Song song) {
+        if (current != null && current.id.equals(song.id)) return;
+
+        if (current != null) MediaCache.unpin(current);
+        MediaCache.pin(song);
+        current = song;
     }
 
     @Override
@@ -117,29 +122,30 @@ public class LocalPlayer implements Playback {
         appendDataSource(song);
     }
 
+    @Override
+    public void prefetchDataSources(List<Song> songs) {
+        prefetcher.prefetch(songs);
+    }
+
     private void appendDataSource(Song song) {
-        File audio = new File(MusicUtil.getFileUri(song));
-        Uri uri = Uri.fromFile(audio);
+        MediaItem mediaItem = MediaItem.fromUri(getUri(song));
+        mediaItem = mediaItem.buildUpon().setMediaId(song.id).setTag(song).build();
 
-        if (!audio.exists()) {
-            uri = Uri.parse(MusicUtil.getTranscodeUri(song));
-        }
+        exoPlayer.addMediaItem(mediaItem);
+    }
 
-        MediaItem mediaItem = MediaItem.fromUri(uri);
-        mediaItem = mediaItem.buildUpon().setMediaId(song.id).build();
+    // prefetching relies on this being the same uri the player requests to share the cache key
+    private static Uri getUri(Song song) {
+        File audio = new File(MusicUtil.getFileUri(song));
+        if (audio.exists()) {
+            return Uri.fromFile(audio);
+        }
 
-        exoPlayer.addMediaItem(mediaItem);
+        return Uri.parse(MusicUtil.getTranscodeUri(song));
     }
 
     private DataSource.Factory buildDataSourceFactory() {
-        return () -> new CacheDataSource(
-                simpleCache,
-                new DefaultDataSourceFactory(context, context.getPackageName(), null).createDataSource(),
-                new FileDataSource(),
-                new CacheDataSink(simpleCache, 10 * 1024 * 1024),
-                CacheDataSource.FLAG_BLOCK_ON_CACHE,
-                null
-        );
+        return MediaCache::createDataSource;
     }
 
     @Override
@@ -180,7 +186,8 @@ public class LocalPlayer implements Playback {
 
     @Override
     public void stop() {
-        simpleCache.release();
+        prefetcher.release();
+        if (current != null) MediaCache.unpin(current);
         exoPlayer.release();
     }
 
@@ -2,11 +2,15 @@ package com.dkanada.gramophone.service.playback;
 
 import com.dkanada.gramophone.model.Song;
 
+import java.util.List;
+
 public interface Playback {
     void setDataSource(Song song);
 
     void queueDataSource(Song song);
 
+    void prefetchDataSources(List<Song> songs);
+
     void setCallbacks(PlaybackCallbacks callbacks);
 
     boolean isReady();
@@ -1,5 +1,6 @@
 package com.dkanada.gramophone.service.playback
 
+import com.dkanada.gramophone.App
 import com.google.android.exoplayer2.MediaItem
 import com.google.android.exoplayer2.drm.DrmSessionManager
 import com.google.android.exoplayer2.extractor.DefaultExtractorsFactory
@@ -11,8 +12,7 @@ import com.google.android.exoplayer2.upstream.*
 
 import kotlinx.coroutines.*
 
-import java.net.HttpURLConnection
-import java.net.URL
+import okhttp3.Request
 
 class UnknownMediaSourceFactory(dataSourceFactory: DataSource.Factory) : MediaSourceFactory {
     private val hlsMediaSource : HlsMediaSource.Factory
@@ -62,10 +62,12 @@ class UnknownMediaSourceFactory(dataSourceFactory: DataSource.Factory) : MediaSo
     @Suppress("BlockingMethodInNonBlockingContext")
     private suspend fun httpGet(url: String?): String? {
         return withContext(Dispatchers.IO) {
-            val request = URL(url)
-            val conn = request.openConnection() as HttpURLConnection
+            val request = Request.Builder().url(url!!).build()
 
-            return@withContext conn.getHeaderField("Content-Type")
+            // only the headers are needed so the body is closed without being read
+            App.getHttpClient().newCall(request).execute().use { response ->
+                return@withContext response.header("Content-Type")
+            }
         }
     }
 
@@ -0,0 +1,472 @@
+package com.dkanada.gramophone.util;
+
+import com.dkanada.gramophone.model.Album;
+import com.dkanada.gramophone.model.Artist;
+import com.dkanada.gramophone.model.Genre;
+import com.dkanada.gramophone.model.Song;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+
+// reads item responses from the token stream straight into the app models
+// fields the models do not use are skipped instead of being built into dto objects first
+// only the library sync reads through here since the browse cache stores and serves ItemsResult
+public class ItemsDecoder {
+    private static final ThreadLocal<SimpleDateFormat> format = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return format;
+        }
+    };
+
+    public interface ItemReader<T> {
+        void read(JsonReader reader, T item) throws IOException;
+    }
+
+    // models that keep the date the item was added to the server
+    public interface Dated {
+        void setAdded(long added);
+    }
+
+    public static class Result<T> {
+        public final List<T> items;
+        public final int total;
+
+        private Result(List<T> items, int total) {
+            this.items = items;
+            this.total = total;
+        }
+    }
+
+    public static <T> Result<T> readItems(Reader in, Supplier<T> factory, ItemReader<? super T> itemReader) throws IOException {
+        List<T> items = new ArrayList<>();
+        int total = 0;
+
+        JsonReader reader = new JsonReader(in);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Items":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        T item = factory.get();
+                        itemReader.read(reader, item);
+                        items.add(item);
+                    }
+
+                    reader.endArray();
+                    break;
+                case "TotalRecordCount":
+                    total = nextInt(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        return new Result<>(items, total);
+    }
+
+    public static void readSong(JsonReader reader, Song song) throws IOException {
+        String[] albumArtist = null;
+        String[] artist = null;
+        boolean primary = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    song.id = nextString(reader);
+                    break;
+                case "Name":
+                    song.title = nextString(reader);
+                    break;
+                case "IndexNumber":
+                    song.trackNumber = nextInt(reader);
+                    break;
+                case "ParentIndexNumber":
+                    song.discNumber = nextInt(reader);
+                    break;
+                case "ProductionYear":
+                    song.year = nextInt(reader);
+                    break;
+                case "RunTimeTicks":
+                    song.duration = nextLong(reader) / 10000;
+                    break;
+                case "AlbumId":
+                    song.albumId = nextString(reader);
+                    break;
+                case "Album":
+                    song.albumName = nextString(reader);
+                    break;
+                case "AlbumArtists":
+                    albumArtist = readFirstItem(reader);
+                    break;
+                case "ArtistItems":
+                    artist = readFirstItem(reader);
+                    break;
+                case "AlbumPrimaryImageTag":
+                    primary = nextString(reader) != null;
+                    break;
+                case "ImageBlurHashes":
+                    song.blurHash = readBlurHash(reader);
+                    break;
+                case "UserData":
+                    song.favorite = readFavorite(reader);
+                    break;
+                case "MediaSources":
+                    readMediaSources(reader, song);
+                    break;
+                case "DateCreated":
+                    readAdded(reader, song);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+
+        String[] first = albumArtist != null ? albumArtist : artist;
+        if (first != null) {
+            song.artistId = first[0];
+            song.artistName = first[1];
+        }
+
+        song.primary = primary ? song.albumId : null;
+    }
+
+    public static void readAlbum(JsonReader reader, Album album) throws IOException {
+        String[] albumArtist = null;
+        String[] artist = null;
+        boolean primary = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    album.id = nextString(reader);
+                    break;
+                case "Name":
+                    album.title = nextString(reader);
+                    break;
+                case "ProductionYear":
+                    album.year = nextInt(reader);
+                    break;
+                case "AlbumArtists":
+                    albumArtist = readFirstItem(reader);
+                    break;
+                case "ArtistItems":
+                    artist = readFirstItem(reader);
+                    break;
+                case "ImageTags":
+                    primary = readPrimaryTag(reader);
+                    break;
+                case "ImageBlurHashes":
+                    album.blurHash = readBlurHash(reader);
+                    break;
+                case "DateCreated":
+                    readAdded(reader, album);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+
+        String[] first = albumArtist != null ? albumArtist : artist;
+        if (first != null) {
+            album.artistId = first[0];
+            album.artistName = first[1];
+        }
+
+        album.primary = primary ? album.id : null;
+    }
+
+    public static void readArtist(JsonReader reader, Artist artist) throws IOException {
+        boolean primary = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    artist.id = nextString(reader);
+                    break;
+                case "Name":
+                    artist.name = nextString(reader);
+                    break;
+                case "ImageTags":
+                    primary = readPrimaryTag(reader);
+                    break;
+                case "ImageBlurHashes":
+                    artist.blurHash = readBlurHash(reader);
+                    break;
+                case "GenreItems":
+                    readGenres(reader, artist.genres);
+                    break;
+                case "DateCreated":
+                    readAdded(reader, artist);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        artist.primary = primary ? artist.id : null;
+    }
+
+    public static void readGenre(JsonReader reader, Genre genre) throws IOException {
+        boolean primary = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "Id":
+                    genre.id = nextString(reader);
+                    break;
+                case "Name":
+                    genre.name = nextString(reader);
+                    break;
+                case "SongCount":
+                    genre.songCount = nextInt(reader);
+                    break;
+                case "ImageTags":
+                    primary = readPrimaryTag(reader);
+                    break;
+                case "ImageBlurHashes":
+                    genre.blurHash = readBlurHash(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        genre.primary = primary ? genre.id : null;
+    }
+
+    // dates from the server have more precision than a date can hold
+    public static long parseDate(String date) {
+        if (date == null || date.length() < 19) return 0;
+
+        try {
+            return format.get().parse(date.substring(0, 19)).getTime();
+        } catch (ParseException exception) {
+            return 0;
+        }
+    }
+
+    private static void readMediaSources(JsonReader reader, Song song) throws IOException {
+        if (skipNull(reader)) return;
+
+        reader.beginArray();
+        if (reader.hasNext() && !skipNull(reader)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "Path":
+                        song.path = nextString(reader);
+                        break;
+                    case "Size":
+                        song.size = nextLong(reader);
+                        break;
+                    case "Container":
+                        song.container = nextString(reader);
+                        break;
+                    case "Bitrate":
+                        song.bitRate = nextInt(reader);
+                        break;
+                    case "MediaStreams":
+                        readMediaStreams(reader, song);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+        }
+
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+
+        reader.endArray();
+    }
+
+    private static void readMediaStreams(JsonReader reader, Song song) throws IOException {
+        if (skipNull(reader)) return;
+
+        reader.beginArray();
+        if (reader.hasNext() && !skipNull(reader)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "Codec":
+                        song.codec = nextString(reader);
+                        break;
+                    case "SampleRate":
+                        song.sampleRate = nextInt(reader);
+                        break;
+                    case "BitDepth":
+                        song.bitDepth = nextInt(reader);
+                        break;
+                    case "Channels":
+                        song.channels = nextInt(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+        }
+
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+
+        reader.endArray();
+    }
+
+    private static void readGenres(JsonReader reader, List<Genre> genres) throws IOException {
+        if (skipNull(reader)) return;
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Genre genre = new Genre();
+            readGenre(reader, genre);
+            genres.add(genre);
+        }
+
+        reader.endArray();
+    }
+
+    // id and name of the first entry in a list of name and id pairs
+    private static String[] readFirstItem(JsonReader reader) throws IOException {
+        if (skipNull(reader)) return null;
+
+        String[] item = null;
+        reader.beginArray();
+        if (reader.hasNext()) {
+            item = new String[2];
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "Id":
+                        item[0] = nextString(reader);
+                        break;
+                    case "Name":
+                        item[1] = nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+        }
+
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+
+        reader.endArray();
+        return item;
+    }
+
+    private static boolean readPrimaryTag(JsonReader reader) throws IOException {
+        if (skipNull(reader)) return false;
+
+        boolean primary = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("Primary")) primary = true;
+            reader.skipValue();
+        }
+
+        reader.endObject();
+        return primary;
+    }
+
+    // the first hash stored for the primary image
+    private static String readBlurHash(JsonReader reader) throws IOException {
+        if (skipNull(reader)) return null;
+
+        String hash = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("Primary")) {
+                reader.skipValue();
+                continue;
+            }
+
+            if (skipNull(reader)) continue;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                if (hash == null) hash = nextString(reader);
+                else reader.skipValue();
+            }
+
+            reader.endObject();
+        }
+
+        reader.endObject();
+        return hash;
+    }
+
+    private static boolean readFavorite(JsonReader reader) throws IOException {
+        if (skipNull(reader)) return false;
+
+        boolean favorite = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("IsFavorite")) reader.skipValue();
+            else if (!skipNull(reader)) favorite = reader.nextBoolean();
+        }
+
+        reader.endObject();
+        return favorite;
+    }
+
+    private static void readAdded(JsonReader reader, Object item) throws IOException {
+        String date = nextString(reader);
+        if (item instanceof Dated) ((Dated) item).setAdded(parseDate(date));
+    }
+
+    private static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.NULL) return false;
+
+        reader.nextNull();
+        return true;
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        return skipNull(reader) ? null : reader.nextString();
+    }
+
+    private static int nextInt(JsonReader reader) throws IOException {
+        return skipNull(reader) ? 0 : reader.nextInt();
+    }
+
+    private static long nextLong(JsonReader reader) throws IOException {
+        return skipNull(reader) ? 0 : reader.nextLong();
+    }
+}
@@ -0,0 +1,147 @@
+package com.dkanada.gramophone.util;
+
+import com.dkanada.gramophone.App;
+
+import org.jellyfin.apiclient.model.querying.ItemFields;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsByNameQuery;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+// item requests that are decoded from the response stream without going through the api client
+// these calls block and must not be made from the main thread
+public class ItemsUtil {
+    public static <T> ItemsDecoder.Result<T> getItems(ItemQuery query, Supplier<T> factory, ItemsDecoder.ItemReader<? super T> reader) throws IOException {
+        return request(getItemsUrl(query), factory, reader);
+    }
+
+    public static <T> ItemsDecoder.Result<T> getAlbumArtists(ItemsByNameQuery query, Supplier<T> factory, ItemsDecoder.ItemReader<? super T> reader) throws IOException {
+        return request(getItemsByNameUrl("/Artists/AlbumArtists", query), factory, reader);
+    }
+
+    public static <T> ItemsDecoder.Result<T> getGenres(ItemsByNameQuery query, Supplier<T> factory, ItemsDecoder.ItemReader<? super T> reader) throws IOException {
+        return request(getItemsByNameUrl("/Genres", query), factory, reader);
+    }
+
+    // songs similar to the given item which is what the web client uses for instant mixes
+    public static <T> ItemsDecoder.Result<T> getInstantMix(String id, int limit, Supplier<T> factory, ItemsDecoder.ItemReader<? super T> reader) throws IOException {
+        StringBuilder builder = new StringBuilder(256);
+
+        builder.append(App.getApiClient().getApiUrl());
+        builder.append("/Items/");
+        builder.append(id);
+        builder.append("/InstantMix");
+        builder.append("?api_key=").append(App.getApiClient().getAccessToken());
+
+        append(builder, "UserId", App.getApiClient().getCurrentUserId());
+        append(builder, "Limit", limit);
+        append(builder, "Fields", new Object[]{ItemFields.MediaSources});
+
+        return request(builder.toString(), factory, reader);
+    }
+
+    public static String getItemsUrl(ItemQuery query) {
+        StringBuilder builder = new StringBuilder(256);
+
+        builder.append(App.getApiClient().getApiUrl());
+        builder.append("/Users/");
+        builder.append(query.getUserId());
+        builder.append("/Items");
+        builder.append("?api_key=").append(App.getApiClient().getAccessToken());
+
+        append(builder, "ParentId", query.getParentId());
+        append(builder, "StartIndex", query.getStartIndex());
+        append(builder, "Limit", query.getLimit());
+        append(builder, "Recursive", query.getRecursive());
+        append(builder, "IncludeItemTypes", query.getIncludeItemTypes());
+        append(builder, "SortBy", query.getSortBy());
+        append(builder, "SortOrder", query.getSortOrder());
+        append(builder, "Filters", query.getFilters());
+        append(builder, "Fields", query.getFields());
+        append(builder, "ArtistIds", query.getArtistIds());
+        append(builder, "GenreIds", query.getGenreIds());
+        append(builder, "MinDateLastSaved", query.getMinDateLastSaved());
+
+        return builder.toString();
+    }
+
+    public static String getItemsByNameUrl(String path, ItemsByNameQuery query) {
+        StringBuilder builder = new StringBuilder(256);
+
+        builder.append(App.getApiClient().getApiUrl());
+        builder.append(path);
+        builder.append("?api_key=").append(App.getApiClient().getAccessToken());
+
+        append(builder, "UserId", query.getUserId());
+        append(builder, "ParentId", query.getParentId());
+        append(builder, "StartIndex", query.getStartIndex());
+        append(builder, "Limit", query.getLimit());
+        append(builder, "Recursive", query.getRecursive());
+        append(builder, "SortBy", query.getSortBy());
+        append(builder, "SortOrder", query.getSortOrder());
+        append(builder, "Filters", query.getFilters());
+        append(builder, "Fields", query.getFields());
+
+        return builder.toString();
+    }
+
+    public static Reader open(String url) throws IOException {
+        Request request = new Request.Builder().url(url).header("Accept", "application/json").build();
+        Response response = App.getHttpClient().newCall(request).execute();
+
+        if (!response.isSuccessful() || response.body() == null) {
+            response.close();
+            // the query contains the access token so only the path ends up in the message
+            throw new IOException("unexpected response " + response.code() + " for " + request.url().encodedPath());
+        }
+
+        return response.body().charStream();
+    }
+
+    private static <T> ItemsDecoder.Result<T> request(String url, Supplier<T> factory, ItemsDecoder.ItemReader<? super T> reader) throws IOException {
+        try (Reader in = open(url)) {
+            return ItemsDecoder.readItems(in, factory, reader);
+        }
+    }
+
+    private static void append(StringBuilder builder, String name, Object value) {
+        if (value == null) return;
+
+        String text;
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            if (values.length == 0) return;
+
+            StringBuilder joined = new StringBuilder();
+            for (Object item : values) {
+                if (joined.length() != 0) joined.append(',');
+                joined.append(item);
+            }
+
+            text = joined.toString();
+        } else if (value instanceof Date) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            text = format.format((Date) value);
+        } else {
+            text = value.toString();
+        }
+
+        try {
+            builder.append('&').append(name).append('=').append(URLEncoder.encode(text, "UTF-8"));
+        } catch (UnsupportedEncodingException exception) {
+            exception.printStackTrace();
+        }
+    }
+}
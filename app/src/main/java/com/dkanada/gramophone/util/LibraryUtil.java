@@ -0,0 +1,102 @@
+package com.dkanada.gramophone.util;
+
+import androidx.core.util.Pair;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.database.LibraryDao;
+import com.dkanada.gramophone.interfaces.PageCallback;
+import com.dkanada.gramophone.model.Album;
+import com.dkanada.gramophone.model.Artist;
+import com.dkanada.gramophone.model.Genre;
+import com.dkanada.gramophone.model.Song;
+import com.dkanada.gramophone.model.SortMethod;
+
+import org.jellyfin.apiclient.model.entities.SortOrder;
+import org.jellyfin.apiclient.model.querying.ArtistsQuery;
+import org.jellyfin.apiclient.model.querying.ItemFilter;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsByNameQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class LibraryUtil {
+    // random order has to stay the same while paging through a list
+    private static final Random random = new Random();
+    private static int seed = random.nextInt(1000003);
+
+    public static boolean isSynced(String library) {
+        return library != null && PreferenceUtil.getInstance(App.getInstance()).getLibrarySync(getUser(), library) != 0;
+    }
+
+    public static void getSongs(ItemQuery query, PageCallback<Song> callback) {
+        String where = "user = ? AND library = ?";
+        if (query.getFilters() != null && Arrays.asList(query.getFilters()).contains(ItemFilter.IsFavorite)) {
+            where += " AND favorite = 1";
+        }
+
+        String order = getOrder(query.getSortBy(), query.getSortOrder(), query.getStartIndex(), "title", "albumName", "artistName", "year", "added");
+        load("librarySongs", where, order, query.getParentId(), query.getStartIndex(), query.getLimit(), callback, LibraryDao::getSongs);
+    }
+
+    public static void getAlbums(ItemQuery query, PageCallback<Album> callback) {
+        String order = getOrder(query.getSortBy(), query.getSortOrder(), query.getStartIndex(), "title", "title", "artistName", "year", "added");
+        load("libraryAlbums", "user = ? AND library = ?", order, query.getParentId(), query.getStartIndex(), query.getLimit(), callback, LibraryDao::getAlbums);
+    }
+
+    public static void getArtists(ArtistsQuery query, PageCallback<Artist> callback) {
+        String order = getOrder(query.getSortBy(), query.getSortOrder(), query.getStartIndex(), "name", "name", "name", "name", "added");
+        load("libraryArtists", "user = ? AND library = ?", order, query.getParentId(), query.getStartIndex(), query.getLimit(), callback, LibraryDao::getArtists);
+    }
+
+    public static void getGenres(ItemsByNameQuery query, PageCallback<Genre> callback) {
+        String order = getOrder(query.getSortBy(), query.getSortOrder(), query.getStartIndex(), "name", "name", "name", "name", "name");
+        load("libraryGenres", "user = ? AND library = ?", order, query.getParentId(), query.getStartIndex(), query.getLimit(), callback, LibraryDao::getGenres);
+    }
+
+    private static <T> void load(String table, String where, String order, String library, Integer index, Integer limit, PageCallback<T> callback, Loader<T> loader) {
+        int offset = index != null ? index : 0;
+        int count = limit != null ? limit : -1;
+
+        // pages can finish out of order since the fragment applies them by index
+        String user = getUser();
+        DatabaseExecutor.read(database -> {
+            LibraryDao dao = database.libraryDao();
+
+            int total = dao.getCount(new SimpleSQLiteQuery("SELECT COUNT(*) FROM " + table + " WHERE " + where, new Object[]{user, library}));
+            List<T> items = loader.load(dao, new SimpleSQLiteQuery("SELECT * FROM " + table + " WHERE " + where + " ORDER BY " + order + " LIMIT ? OFFSET ?", new Object[]{user, library, count, offset}));
+
+            return new Pair<List<T>, Integer>(new ArrayList<>(items), total);
+        }, page -> callback.onLoadPage(page.first, page.second));
+    }
+
+    private static String getUser() {
+        return App.getApiClient().getCurrentUserId();
+    }
+
+    private static String getOrder(String[] sortBy, SortOrder sortOrder, Integer index, String name, String album, String artist, String year, String added) {
+        String method = sortBy != null && sortBy.length != 0 ? sortBy[0] : SortMethod.NAME.getApi();
+        String direction = sortOrder == SortOrder.Descending ? " DESC" : " ASC";
+
+        if (method.equals(SortMethod.RANDOM.getApi())) {
+            if (index == null || index == 0) seed = random.nextInt(1000003);
+            return "(rowid * " + seed + ") % 1000003";
+        }
+
+        String column = name;
+        if (method.equals(SortMethod.ALBUM.getApi())) column = album;
+        else if (method.equals(SortMethod.ARTIST.getApi())) column = artist;
+        else if (method.equals(SortMethod.YEAR.getApi())) column = year;
+        else if (method.equals(SortMethod.ADDED.getApi())) column = added;
+
+        return column + " COLLATE NOCASE" + direction + ", " + name + " COLLATE NOCASE, id";
+    }
+
+    private interface Loader<T> {
+        List<T> load(LibraryDao dao, SimpleSQLiteQuery query);
+    }
+}
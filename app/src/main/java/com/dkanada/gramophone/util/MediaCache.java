@@ -0,0 +1,219 @@
+package com.dkanada.gramophone.util;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.model.Song;
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.database.ExoDatabaseProvider;
+import com.google.android.exoplayer2.ext.okhttp.OkHttpDataSourceFactory;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
+import com.google.android.exoplayer2.upstream.DummyDataSource;
+import com.google.android.exoplayer2.upstream.FileDataSource;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSink;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.CacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.CacheKeyFactory;
+import com.google.android.exoplayer2.upstream.cache.CacheSpan;
+import com.google.android.exoplayer2.upstream.cache.ContentMetadata;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+// single media cache for the process that owns streamed audio, pinned songs and offline downloads
+// streams are kept in one exoplayer cache while downloads stay plain files in the music folder
+@SuppressWarnings("ResultOfMethodCallIgnored")
+public class MediaCache {
+    private static final int SINK_FRAGMENT = 10 * 1024 * 1024;
+
+    // pinned streams are never evicted until they are unpinned
+    private static final Set<String> pinned = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    // the access token is part of every stream uri but should not change the cache key
+    private static final CacheKeyFactory keyFactory = dataSpec -> {
+        if (dataSpec.key != null) return dataSpec.key;
+
+        Uri uri = dataSpec.uri;
+        if (uri.getQueryParameter("api_key") == null) return uri.toString();
+
+        Uri.Builder builder = uri.buildUpon().clearQuery();
+        for (String name : uri.getQueryParameterNames()) {
+            if (name.equals("api_key")) continue;
+
+            for (String value : uri.getQueryParameters(name)) {
+                builder.appendQueryParameter(name, value);
+            }
+        }
+
+        return builder.build().toString();
+    };
+
+    private static SimpleCache cache;
+
+    public static synchronized Cache getCache() {
+        if (cache == null) {
+            Context context = App.getInstance();
+            PreferenceUtil preferences = PreferenceUtil.getInstance(context);
+
+            File directory = new File(preferences.getLocationCache(), "exoplayer");
+            cache = new SimpleCache(directory, new Evictor(preferences.getMediaCacheSize()), new ExoDatabaseProvider(context));
+        }
+
+        return cache;
+    }
+
+    public static CacheDataSource createDataSource() {
+        Context context = App.getInstance();
+        Cache cache = getCache();
+
+        return new CacheDataSource(
+                cache,
+                new DefaultDataSourceFactory(context, new OkHttpDataSourceFactory(App.getHttpClient(), context.getPackageName())).createDataSource(),
+                new FileDataSource(),
+                new CacheDataSink(cache, SINK_FRAGMENT),
+                CacheDataSource.FLAG_BLOCK_ON_CACHE,
+                null,
+                keyFactory
+        );
+    }
+
+    public static String getKey(Song song) {
+        return keyFactory.buildCacheKey(new DataSpec(Uri.parse(MusicUtil.getTranscodeUri(song))));
+    }
+
+    public static void pin(Song song) {
+        pinned.add(getKey(song));
+    }
+
+    public static void unpin(Song song) {
+        pinned.remove(getKey(song));
+    }
+
+    public static boolean isDownloaded(Song song) {
+        return new File(MusicUtil.getFileUri(song)).exists();
+    }
+
+    // direct play streams are the original file so a complete stream of the same size can be kept
+    public static boolean isPromotable(Song song) {
+        String key = getKey(song);
+        long length = ContentMetadata.getContentLength(getCache().getContentMetadata(key));
+
+        return length != C.LENGTH_UNSET && length == song.size && getCache().isCached(key, 0, length);
+    }
+
+    // copies a fully cached stream into the music folder without touching the network
+    public static boolean promote(Song song) {
+        if (song.size <= 0 || !isPromotable(song)) return false;
+
+        File audio = new File(MusicUtil.getFileUri(song));
+        File partial = new File(audio.getPath() + ".partial");
+        audio.getParentFile().mkdirs();
+
+        DataSpec dataSpec = new DataSpec.Builder()
+                .setUri(Uri.parse(MusicUtil.getTranscodeUri(song)))
+                .setKey(getKey(song))
+                .build();
+
+        CacheDataSource source = new CacheDataSource(getCache(), DummyDataSource.INSTANCE, 0);
+        try (OutputStream output = new FileOutputStream(partial)) {
+            source.open(dataSpec);
+
+            byte[] data = new byte[65536];
+            int count;
+
+            while ((count = source.read(data, 0, data.length)) != C.RESULT_END_OF_INPUT) {
+                output.write(data, 0, count);
+            }
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            partial.delete();
+
+            return false;
+        } finally {
+            closeQuietly(source);
+        }
+
+        return partial.renameTo(audio);
+    }
+
+    private static void closeQuietly(CacheDataSource source) {
+        try {
+            source.close();
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+
+    // least recently used eviction that skips the spans of pinned streams
+    private static class Evictor implements CacheEvictor {
+        private final long maxBytes;
+        private final TreeSet<CacheSpan> spans = new TreeSet<>(Evictor::compare);
+        private long size;
+
+        private Evictor(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public boolean requiresCacheSpanTouches() {
+            return true;
+        }
+
+        @Override
+        public void onCacheInitialized() {
+        }
+
+        @Override
+        public void onStartFile(Cache cache, String key, long position, long length) {
+            if (length != C.LENGTH_UNSET) evict(cache, length);
+        }
+
+        @Override
+        public void onSpanAdded(Cache cache, CacheSpan span) {
+            spans.add(span);
+            size += span.length;
+            evict(cache, 0);
+        }
+
+        @Override
+        public void onSpanRemoved(Cache cache, CacheSpan span) {
+            spans.remove(span);
+            size -= span.length;
+        }
+
+        @Override
+        public void onSpanTouched(Cache cache, CacheSpan oldSpan, CacheSpan newSpan) {
+            onSpanRemoved(cache, oldSpan);
+            onSpanAdded(cache, newSpan);
+        }
+
+        private void evict(Cache cache, long required) {
+            if (size + required <= maxBytes) return;
+
+            // removing a span calls back into this evictor so the candidates are copied first
+            for (CacheSpan span : new ArrayList<>(spans)) {
+                if (size + required <= maxBytes) break;
+                if (pinned.contains(span.key)) continue;
+
+                cache.removeSpan(span);
+            }
+        }
+
+        private static int compare(CacheSpan left, CacheSpan right) {
+            if (left.lastTouchTimestamp == right.lastTouchTimestamp) return left.compareTo(right);
+
+            return left.lastTouchTimestamp < right.lastTouchTimestamp ? -1 : 1;
+        }
+    }
+}
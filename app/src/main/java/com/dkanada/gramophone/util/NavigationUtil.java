@@ -7,6 +7,7 @@ import android.net.Uri;
 import android.provider.Settings;
 
 import androidx.core.app.ActivityOptionsCompat;
+import androidx.core.content.ContextCompat;
 import androidx.core.util.Pair;
 
 import com.dkanada.gramophone.activities.LoginActivity;
@@ -20,8 +21,14 @@ import com.dkanada.gramophone.activities.details.AlbumDetailActivity;
 import com.dkanada.gramophone.activities.details.ArtistDetailActivity;
 import com.dkanada.gramophone.activities.details.GenreDetailActivity;
 import com.dkanada.gramophone.activities.details.PlaylistDetailActivity;
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.database.DownloadJob;
+import com.dkanada.gramophone.database.DownloadRequest;
 import com.dkanada.gramophone.model.Song;
 import com.dkanada.gramophone.service.DownloadService;
+import com.dkanada.gramophone.service.SyncService;
+
+import org.jellyfin.apiclient.model.querying.ItemQuery;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -102,10 +109,36 @@ public class NavigationUtil {
         }
     }
 
+    // jobs are written before the service starts so only an empty intent crosses the binder
     public static void startDownload(Activity activity, List<Song> songs) {
-        Intent intent = new Intent(activity, DownloadService.class);
+        Context context = activity.getApplicationContext();
+        List<Song> copy = new ArrayList<>(songs);
+
+        DatabaseExecutor.write(database -> {
+            List<DownloadJob> jobs = new ArrayList<>(copy.size());
+            for (Song song : copy) {
+                jobs.add(new DownloadJob(song, DownloadJob.PRIORITY_NORMAL));
+            }
+
+            database.downloadJobDao().enqueue(jobs);
+        }, () -> ContextCompat.startForegroundService(context, new Intent(context, DownloadService.class)));
+    }
+
+    // large collections are stored as a query that the service resolves page by page
+    public static void startDownload(Activity activity, ItemQuery query) {
+        Context context = activity.getApplicationContext();
+
+        QueryUtil.applyProperties(query);
+        DownloadRequest request = new DownloadRequest(query, DownloadJob.PRIORITY_NORMAL);
+
+        DatabaseExecutor.write(database -> database.downloadJobDao().insertRequest(request),
+                () -> ContextCompat.startForegroundService(context, new Intent(context, DownloadService.class)));
+    }
+
+    public static void startSync(Context context, String library) {
+        Intent intent = new Intent(context, SyncService.class);
 
-        intent.putExtra(DownloadService.EXTRA_SONGS, new ArrayList<>(songs));
-        activity.startService(intent);
+        intent.putExtra(SyncService.EXTRA_LIBRARY, library);
+        context.startService(intent);
     }
 }
@@ -10,6 +10,7 @@ import org.jellyfin.apiclient.interaction.EmptyResponse;
 import org.jellyfin.apiclient.interaction.Response;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.playlists.PlaylistCreationRequest;
+import org.jellyfin.apiclient.model.playlists.PlaylistCreationResult;
 import org.jellyfin.apiclient.model.playlists.PlaylistItemQuery;
 import org.jellyfin.apiclient.model.querying.ItemFields;
 import org.jellyfin.apiclient.model.querying.ItemsResult;
@@ -21,7 +22,7 @@ public class PlaylistUtil {
     public static void getPlaylist(PlaylistItemQuery query, MediaCallback<PlaylistSong> callback) {
         query.setUserId(App.getApiClient().getCurrentUserId());
         query.setFields(new ItemFields[]{ItemFields.MediaSources});
-        App.getApiClient().GetPlaylistItems(query, new Response<ItemsResult>() {
+        RequestUtil.getPlaylistItems(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<PlaylistSong> songs = new ArrayList<>();
@@ -49,12 +50,18 @@ public class PlaylistUtil {
         request.setUserId(App.getApiClient().getCurrentUserId());
         request.setName(name);
         if (ids.size() != 0) request.setItemIdList(ids);
-        App.getApiClient().CreatePlaylist(request, new Response<>());
+        invalidate(null);
+        App.getApiClient().CreatePlaylist(request, new Response<PlaylistCreationResult>() {
+            @Override
+            public void onResponse(PlaylistCreationResult result) {
+                invalidate(null);
+            }
+        });
     }
 
     public static void deletePlaylist(final List<Playlist> playlists) {
         for (Playlist playlist : playlists) {
-            App.getApiClient().DeleteItem(playlist.id, new EmptyResponse());
+            App.getApiClient().DeleteItem(playlist.id, invalidate(playlist.id));
         }
     }
 
@@ -65,7 +72,7 @@ public class PlaylistUtil {
         }
 
         String user = App.getApiClient().getCurrentUserId();
-        App.getApiClient().AddToPlaylist(playlist, ids, user, new EmptyResponse());
+        App.getApiClient().AddToPlaylist(playlist, ids, user, invalidate(playlist));
     }
 
     public static void deleteItems(final List<PlaylistSong> songs, final String playlist) {
@@ -74,11 +81,11 @@ public class PlaylistUtil {
             ids[i] = songs.get(i).indexId;
         }
 
-        App.getApiClient().RemoveFromPlaylist(playlist, ids, new EmptyResponse());
+        App.getApiClient().RemoveFromPlaylist(playlist, ids, invalidate(playlist));
     }
 
     public static void moveItem(final String playlist, final PlaylistSong song, int to) {
-        App.getApiClient().MoveItem(playlist, song.indexId, to, new EmptyResponse());
+        App.getApiClient().MoveItem(playlist, song.indexId, to, invalidate(playlist));
     }
 
     public static void renamePlaylist(final String playlist, final String name) {
@@ -89,7 +96,7 @@ public class PlaylistUtil {
                 itemDto.setName(name);
 
                 // TODO at some point this should become metadata utilities
-                App.getApiClient().UpdateItem(itemDto.getId(), itemDto, new EmptyResponse());
+                App.getApiClient().UpdateItem(itemDto.getId(), itemDto, invalidate(playlist));
             }
 
             @Override
@@ -98,4 +105,18 @@ public class PlaylistUtil {
             }
         });
     }
+
+    // cached responses are dropped when the edit is sent and again once the server confirms it
+    public static EmptyResponse invalidate(String playlist) {
+        ResponseCache.invalidate("Playlist");
+        if (playlist != null) ResponseCache.invalidate(playlist);
+
+        return new EmptyResponse() {
+            @Override
+            public void onResponse() {
+                ResponseCache.invalidate("Playlist");
+                if (playlist != null) ResponseCache.invalidate(playlist);
+            }
+        };
+    }
 }
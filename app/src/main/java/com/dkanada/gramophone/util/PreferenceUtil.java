@@ -32,6 +32,7 @@ public final class PreferenceUtil {
     public static final String POSITION = "position";
     public static final String PROGRESS = "progress";
     public static final String TAB = "tab";
+    public static final String LIBRARY_SYNC = "library_sync";
 
     public static final String SLEEP_TIMER_LAST_VALUE = "sleep_timer_last_value";
     public static final String SLEEP_TIMER_ELAPSED_REALTIME = "sleep_timer_elapsed_real_time";
@@ -186,6 +187,14 @@ public final class PreferenceUtil {
         mPreferences.edit().putInt(PROGRESS, progress).apply();
     }
 
+    public long getLibrarySync(String user, String library) {
+        return mPreferences.getLong(LIBRARY_SYNC + "_" + user + "_" + library, 0);
+    }
+
+    public void setLibrarySync(String user, String library, long time) {
+        mPreferences.edit().putLong(LIBRARY_SYNC + "_" + user + "_" + library, time).apply();
+    }
+
     public Theme getTheme() {
         return Theme.valueOf(mPreferences.getString(GENERAL_THEME, Theme.DARK.toString()));
     }
@@ -2,6 +2,7 @@ package com.dkanada.gramophone.util;
 
 import com.dkanada.gramophone.App;
 import com.dkanada.gramophone.interfaces.MediaCallback;
+import com.dkanada.gramophone.interfaces.PageCallback;
 import com.dkanada.gramophone.model.Album;
 import com.dkanada.gramophone.model.Artist;
 import com.dkanada.gramophone.model.Genre;
@@ -28,7 +29,7 @@ public class QueryUtil {
     // will simplify the code for the getPlaylists method
     public static void getLibraries(MediaCallback<BaseItemDto> callback) {
         String id = App.getApiClient().getCurrentUserId();
-        App.getApiClient().GetUserViews(id, new Response<ItemsResult>() {
+        RequestUtil.getUserViews(id, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<BaseItemDto> libraries = new ArrayList<>(Arrays.asList(result.getItems()));
@@ -47,7 +48,7 @@ public class QueryUtil {
         ItemQuery query = new ItemQuery();
         query.setIncludeItemTypes(new String[]{"Playlist"});
         applyProperties(query);
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getItems(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<Playlist> playlists = new ArrayList<>();
@@ -68,7 +69,7 @@ public class QueryUtil {
     public static void getGenres(MediaCallback<Genre> callback) {
         ItemsByNameQuery query = new ItemsByNameQuery();
         applyProperties(query);
-        App.getApiClient().GetGenresAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getGenres(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<Genre> genres = new ArrayList<>();
@@ -92,7 +93,7 @@ public class QueryUtil {
         query.setUserId(App.getApiClient().getCurrentUserId());
         query.setLimit(40);
         query.setRecursive(true);
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getItems(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<Object> items = new ArrayList<>();
@@ -119,7 +120,7 @@ public class QueryUtil {
     public static void getAlbums(ItemQuery query, MediaCallback<Album> callback) {
         query.setIncludeItemTypes(new String[]{"MusicAlbum"});
         applyProperties(query);
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getItems(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<Album> albums = new ArrayList<>();
@@ -140,7 +141,7 @@ public class QueryUtil {
     public static void getArtists(ArtistsQuery query, MediaCallback<Artist> callback) {
         query.setFields(new ItemFields[]{ItemFields.Genres});
         applyProperties(query);
-        App.getApiClient().GetAlbumArtistsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getAlbumArtists(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<Artist> artists = new ArrayList<>();
@@ -162,7 +163,7 @@ public class QueryUtil {
         query.setIncludeItemTypes(new String[]{"Audio"});
         query.setFields(new ItemFields[]{ItemFields.MediaSources});
         applyProperties(query);
-        App.getApiClient().GetItemsAsync(query, new Response<ItemsResult>() {
+        RequestUtil.getItems(query, new Response<ItemsResult>() {
             @Override
             public void onResponse(ItemsResult result) {
                 List<Song> songs = new ArrayList<>();
@@ -180,6 +181,28 @@ public class QueryUtil {
         });
     }
 
+    public static void getSongs(ItemQuery query, PageCallback<Song> callback) {
+        query.setIncludeItemTypes(new String[]{"Audio"});
+        query.setFields(new ItemFields[]{ItemFields.MediaSources});
+        applyProperties(query);
+        RequestUtil.getItems(query, new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult result) {
+                List<Song> songs = new ArrayList<>();
+                for (BaseItemDto itemDto : result.getItems()) {
+                    songs.add(new Song(itemDto));
+                }
+
+                callback.onLoadPage(songs, result.getTotalRecordCount());
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                callback.onError(exception);
+            }
+        });
+    }
+
     public static void applyProperties(ItemQuery query) {
         query.setUserId(App.getApiClient().getCurrentUserId());
         query.setRecursive(true);
@@ -0,0 +1,244 @@
+package com.dkanada.gramophone.util;
+
+import com.dkanada.gramophone.App;
+import com.dkanada.gramophone.model.SortMethod;
+import com.google.gson.Gson;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.playlists.PlaylistItemQuery;
+import org.jellyfin.apiclient.model.querying.ArtistsQuery;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsByNameQuery;
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// identical requests that are still in flight share a single call to the server
+// responses are cached and refreshed in the background once they go stale
+public class RequestUtil {
+    private static final Map<String, List<Response<ItemsResult>>> requests = new HashMap<>();
+    private static final Gson gson = new Gson();
+
+    // pages are requested in aligned blocks so the cache keys do not depend on the adaptive page size
+    private static final int BLOCK = 100;
+    private static final int MAX_BLOCKS = 8;
+
+    private static final long VIEWS_TTL = TimeUnit.HOURS.toMillis(1);
+    private static final long ITEMS_TTL = TimeUnit.MINUTES.toMillis(10);
+    private static final long PLAYLIST_TTL = TimeUnit.MINUTES.toMillis(1);
+
+    public static void getUserViews(String user, Response<ItemsResult> response) {
+        request("views:" + user, VIEWS_TTL, response, shared -> App.getApiClient().GetUserViews(user, shared));
+    }
+
+    public static void getItems(ItemQuery query, Response<ItemsResult> response) {
+        long ttl = getTtl(query.getSortBy(), ITEMS_TTL);
+        request(query.getStartIndex(), query.getLimit(), ttl, response, (start, limit, shared) -> {
+            ItemQuery block = copy(query, ItemQuery.class);
+            block.setStartIndex(start);
+            block.setLimit(limit);
+
+            request(getKey(block), ttl, shared, inner -> App.getApiClient().GetItemsAsync(block, inner));
+        });
+    }
+
+    public static void getAlbumArtists(ArtistsQuery query, Response<ItemsResult> response) {
+        long ttl = getTtl(query.getSortBy(), ITEMS_TTL);
+        request(query.getStartIndex(), query.getLimit(), ttl, response, (start, limit, shared) -> {
+            ArtistsQuery block = copy(query, ArtistsQuery.class);
+            block.setStartIndex(start);
+            block.setLimit(limit);
+
+            request(getKey(block), ttl, shared, inner -> App.getApiClient().GetAlbumArtistsAsync(block, inner));
+        });
+    }
+
+    public static void getGenres(ItemsByNameQuery query, Response<ItemsResult> response) {
+        long ttl = getTtl(query.getSortBy(), ITEMS_TTL);
+        request(query.getStartIndex(), query.getLimit(), ttl, response, (start, limit, shared) -> {
+            ItemsByNameQuery block = copy(query, ItemsByNameQuery.class);
+            block.setStartIndex(start);
+            block.setLimit(limit);
+
+            request(getKey(block), ttl, shared, inner -> App.getApiClient().GetGenresAsync(block, inner));
+        });
+    }
+
+    public static void getPlaylistItems(PlaylistItemQuery query, Response<ItemsResult> response) {
+        request(getKey(query), PLAYLIST_TTL, response, shared -> App.getApiClient().GetPlaylistItems(query, shared));
+    }
+
+    // the serialized query contains every parameter that ends up in the request url
+    public static String getKey(Object query) {
+        return query.getClass().getSimpleName() + ":" + gson.toJson(query);
+    }
+
+    private static <T> T copy(T query, Class<T> type) {
+        return gson.fromJson(gson.toJson(query), type);
+    }
+
+    // random results should never be served twice
+    private static long getTtl(String[] sortBy, long ttl) {
+        if (sortBy != null && Arrays.asList(sortBy).contains(SortMethod.RANDOM.getApi())) return 0;
+        return ttl;
+    }
+
+    // the blocks covering the page are requested on their own and the page is cut out of them
+    // random orders and very large pages are requested as they are
+    private static void request(Integer start, Integer limit, long ttl, Response<ItemsResult> response, BlockRequest request) {
+        int first = start != null ? start : 0;
+        if (ttl == 0 || limit == null || limit > BLOCK * MAX_BLOCKS) {
+            request.execute(start, limit, response);
+            return;
+        }
+
+        int from = first / BLOCK;
+        int count = (first + limit + BLOCK - 1) / BLOCK - from;
+        if (count == 0) {
+            request.execute(start, limit, response);
+            return;
+        }
+
+        ItemsResult[] blocks = new ItemsResult[count];
+        boolean[] failed = new boolean[1];
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            request.execute((from + i) * BLOCK, BLOCK, new RefreshResponse() {
+                @Override
+                public void onResponse(ItemsResult result) {
+                    if (failed[0]) return;
+
+                    blocks[index] = result;
+                    for (ItemsResult block : blocks) {
+                        if (block == null) return;
+                    }
+
+                    response.onResponse(slice(blocks, first - from * BLOCK, limit));
+                }
+
+                @Override
+                public void onRefresh(ItemsResult result) {
+                    blocks[index] = result;
+                    if (response instanceof RefreshResponse) {
+                        ((RefreshResponse) response).onRefresh(slice(blocks, first - from * BLOCK, limit));
+                    }
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    if (failed[0]) return;
+
+                    failed[0] = true;
+                    response.onError(exception);
+                }
+            });
+        }
+    }
+
+    private static ItemsResult slice(ItemsResult[] blocks, int offset, int limit) {
+        List<BaseItemDto> items = new ArrayList<>();
+        for (ItemsResult block : blocks) {
+            items.addAll(Arrays.asList(block.getItems()));
+        }
+
+        int from = Math.min(offset, items.size());
+        int to = Math.min(from + limit, items.size());
+
+        ItemsResult result = new ItemsResult();
+        result.setItems(items.subList(from, to).toArray(new BaseItemDto[0]));
+        result.setTotalRecordCount(blocks[0].getTotalRecordCount());
+
+        return result;
+    }
+
+    private static void request(String key, long ttl, Response<ItemsResult> response, Request request) {
+        if (ttl == 0) {
+            fetch(key, ttl, response, request);
+            return;
+        }
+
+        ResponseCache.get(key, entry -> {
+            if (entry == null || !entry.isUsable()) {
+                fetch(key, ttl, response, request);
+                return;
+            }
+
+            response.onResponse(entry.result);
+
+            // stale entries are still shown while a fresh copy is fetched in the background
+            // callers that show the result are told about the fresh copy when it differs
+            if (!entry.isFresh()) fetch(key, ttl, new Response<ItemsResult>() {
+                @Override
+                public void onResponse(ItemsResult result) {
+                    if (!(response instanceof RefreshResponse)) return;
+                    if (gson.toJson(result).equals(gson.toJson(entry.result))) return;
+
+                    ((RefreshResponse) response).onRefresh(result);
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    exception.printStackTrace();
+                }
+            }, request);
+        });
+    }
+
+    private static void fetch(String key, long ttl, Response<ItemsResult> response, Request request) {
+        synchronized (requests) {
+            List<Response<ItemsResult>> waiting = requests.get(key);
+            if (waiting != null) {
+                waiting.add(response);
+                return;
+            }
+
+            waiting = new ArrayList<>();
+            waiting.add(response);
+            requests.put(key, waiting);
+        }
+
+        request.execute(new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult result) {
+                if (ttl != 0) ResponseCache.put(key, result, ttl);
+                for (Response<ItemsResult> waiting : finish(key)) {
+                    waiting.onResponse(result);
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                for (Response<ItemsResult> waiting : finish(key)) {
+                    waiting.onError(exception);
+                }
+            }
+        });
+    }
+
+    private static List<Response<ItemsResult>> finish(String key) {
+        synchronized (requests) {
+            List<Response<ItemsResult>> waiting = requests.remove(key);
+            return waiting != null ? waiting : new ArrayList<>();
+        }
+    }
+
+    // responses that are shown to the user also receive the fresh result after a stale entry was used
+    public static abstract class RefreshResponse extends Response<ItemsResult> {
+        public void onRefresh(ItemsResult result) {
+        }
+    }
+
+    private interface Request {
+        void execute(Response<ItemsResult> response);
+    }
+
+    private interface BlockRequest {
+        void execute(Integer start, Integer limit, Response<ItemsResult> response);
+    }
+}
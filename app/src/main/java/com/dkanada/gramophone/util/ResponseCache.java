@@ -0,0 +1,278 @@
+package com.dkanada.gramophone.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.dkanada.gramophone.App;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// browse responses are kept in memory and on disk
+// entries past their ttl are still returned as stale until the max age is reached
+public class ResponseCache {
+    private static final int MEMORY_ENTRIES = 64;
+    private static final long DISK_SIZE = 20 * 1024 * 1024;
+    private static final long MAX_AGE = 7 * 24 * 60 * 60 * 1000L;
+
+    private static final LruCache<String, Entry> memory = new LruCache<>(MEMORY_ENTRIES);
+    private static final Executor executor = Executors.newSingleThreadExecutor();
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    private static Map<String, Set<String>> index;
+
+    private static final Gson gson = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ")
+            .create();
+
+    public static class Entry {
+        public final ItemsResult result;
+        public final long time;
+        public final long ttl;
+
+        private Entry(ItemsResult result, long time, long ttl) {
+            this.result = result;
+            this.time = time;
+            this.ttl = ttl;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() - time < ttl;
+        }
+
+        public boolean isUsable() {
+            return System.currentTimeMillis() - time < MAX_AGE;
+        }
+    }
+
+    public interface Callback {
+        void onLoadEntry(Entry entry);
+    }
+
+    // memory hits are returned immediately while disk reads happen off the main thread
+    public static void get(String key, Callback callback) {
+        Entry entry = memory.get(key);
+        if (entry != null) {
+            callback.onLoadEntry(entry);
+            return;
+        }
+
+        executor.execute(() -> {
+            Entry disk = read(key);
+            if (disk != null) memory.put(key, disk);
+
+            handler.post(() -> callback.onLoadEntry(disk));
+        });
+    }
+
+    public static void put(String key, ItemsResult result, long ttl) {
+        Entry entry = new Entry(result, System.currentTimeMillis(), ttl);
+
+        memory.put(key, entry);
+        executor.execute(() -> write(key, entry));
+    }
+
+    public static void invalidate(String value) {
+        invalidate(Collections.singleton(value));
+    }
+
+    // removes every entry with a query that has one of the values as a parameter
+    public static void invalidate(Collection<String> values) {
+        for (String key : memory.snapshot().keySet()) {
+            if (matches(getValues(key), values)) memory.remove(key);
+        }
+
+        executor.execute(() -> {
+            Iterator<Map.Entry<String, Set<String>>> iterator = getIndex().entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Set<String>> indexed = iterator.next();
+                if (!matches(indexed.getValue(), values)) continue;
+
+                new File(getDirectory(), indexed.getKey()).delete();
+                iterator.remove();
+            }
+        });
+    }
+
+    public static void clear() {
+        memory.evictAll();
+
+        executor.execute(() -> {
+            File[] files = getDirectory().listFiles();
+            if (files == null) return;
+
+            for (File file : files) {
+                file.delete();
+            }
+
+            getIndex().clear();
+        });
+    }
+
+    private static Entry read(String key) {
+        File file = getFile(key);
+        if (!file.exists()) return null;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            if (!key.equals(reader.readLine())) return null;
+
+            long time = Long.parseLong(reader.readLine());
+            long ttl = Long.parseLong(reader.readLine());
+            ItemsResult result = gson.fromJson(reader, ItemsResult.class);
+
+            Entry entry = new Entry(result, time, ttl);
+            if (!entry.isUsable()) {
+                file.delete();
+                getIndex().remove(file.getName());
+                return null;
+            }
+
+            // keeps recently used entries away from the eviction below
+            file.setLastModified(System.currentTimeMillis());
+            return entry;
+        } catch (Exception exception) {
+            exception.printStackTrace();
+            file.delete();
+            getIndex().remove(file.getName());
+        }
+
+        return null;
+    }
+
+    private static void write(String key, Entry entry) {
+        File file = getFile(key);
+        File temp = new File(file.getPath() + ".tmp");
+
+        try (Writer writer = new FileWriter(temp)) {
+            writer.write(key + "\n" + entry.time + "\n" + entry.ttl + "\n");
+            gson.toJson(entry.result, writer);
+        } catch (IOException exception) {
+            exception.printStackTrace();
+            temp.delete();
+            return;
+        }
+
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+
+        getIndex().put(file.getName(), getValues(key));
+        trim();
+    }
+
+    private static void trim() {
+        File[] files = getDirectory().listFiles();
+        if (files == null) return;
+
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+
+        if (size <= DISK_SIZE) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        for (File file : files) {
+            if (size <= DISK_SIZE) break;
+
+            size -= file.length();
+            file.delete();
+            getIndex().remove(file.getName());
+        }
+    }
+
+    // parameters of every entry on disk by file name so invalidation never has to read the files
+    // this is only touched from the executor and built from the first line of each file once
+    private static Map<String, Set<String>> getIndex() {
+        if (index != null) return index;
+
+        index = new HashMap<>();
+        File[] files = getDirectory().listFiles();
+        if (files == null) return index;
+
+        for (File file : files) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String key = reader.readLine();
+                if (key != null) index.put(file.getName(), getValues(key));
+            } catch (IOException exception) {
+                exception.printStackTrace();
+            }
+        }
+
+        return index;
+    }
+
+    // keys are the class name of the query followed by the query as json
+    private static Set<String> getValues(String key) {
+        Set<String> values = new HashSet<>();
+
+        try {
+            collect(new JsonParser().parse(key.substring(key.indexOf(':') + 1)), values);
+        } catch (JsonParseException exception) {
+            exception.printStackTrace();
+        }
+
+        return values;
+    }
+
+    private static void collect(JsonElement element, Set<String> values) {
+        if (element.isJsonArray()) {
+            for (JsonElement child : element.getAsJsonArray()) collect(child, values);
+        } else if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> child : element.getAsJsonObject().entrySet()) collect(child.getValue(), values);
+        } else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            values.add(element.getAsString());
+        }
+    }
+
+    private static boolean matches(Set<String> parameters, Collection<String> values) {
+        for (String value : values) {
+            if (parameters.contains(value)) return true;
+        }
+
+        return false;
+    }
+
+    private static File getDirectory() {
+        File directory = new File(PreferenceUtil.getInstance(App.getInstance()).getLocationCache(), "responses");
+        if (!directory.exists()) directory.mkdirs();
+
+        return directory;
+    }
+
+    private static File getFile(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return new File(getDirectory(), String.format("%032x", new BigInteger(1, hash)));
+        } catch (NoSuchAlgorithmException exception) {
+            return new File(getDirectory(), Integer.toHexString(key.hashCode()));
+        }
+    }
+}
@@ -7,6 +7,10 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 
+import androidx.core.content.ContextCompat;
+
+import com.dkanada.gramophone.database.DatabaseExecutor;
+import com.dkanada.gramophone.service.DownloadService;
 import com.dkanada.gramophone.service.MusicService;
 
 public class BootReceiver extends BroadcastReceiver {
@@ -25,5 +29,15 @@ public class BootReceiver extends BroadcastReceiver {
                 context.startService(serviceIntent);
             }
         }
+
+        // downloads that were still queued when the device was turned off are resumed
+        final PendingResult result = goAsync();
+        DatabaseExecutor.read(database -> database.downloadJobDao().getPendingCount(), count -> {
+            if (count > 0) {
+                ContextCompat.startForegroundService(context, new Intent(context, DownloadService.class));
+            }
+
+            result.finish();
+        });
     }
 }